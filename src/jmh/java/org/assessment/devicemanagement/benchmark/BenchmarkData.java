@@ -0,0 +1,40 @@
+package org.assessment.devicemanagement.benchmark;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.assessment.devicemanagement.model.Device;
+import org.assessment.devicemanagement.model.DeviceState;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Deterministic, detached devices shaped like the ones read back from the database.
+ */
+final class BenchmarkData {
+
+  private static final String[] BRANDS = {"Apple", "Samsung", "Google", "Lenovo", "Dell"};
+  private static final DeviceState[] STATES = DeviceState.values();
+
+  private BenchmarkData() {
+  }
+
+  static Device device(int i) {
+    Device d = new Device();
+    d.setName("device-" + i);
+    d.setBrand(BRANDS[i % BRANDS.length]);
+    d.setState(STATES[i % STATES.length]);
+    ReflectionTestUtils.setField(d, "id", new UUID(0x5EEDL, i));
+    ReflectionTestUtils.setField(d, "createdAt", Instant.parse("2025-01-01T00:00:00Z").plusMillis(i));
+    ReflectionTestUtils.setField(d, "version", (long) i % 7);
+    return d;
+  }
+
+  static List<Device> devices(int count) {
+    List<Device> devices = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      devices.add(device(i));
+    }
+    return devices;
+  }
+}
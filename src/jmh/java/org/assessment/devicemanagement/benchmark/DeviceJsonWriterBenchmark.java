@@ -0,0 +1,83 @@
+package org.assessment.devicemanagement.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.assessment.devicemanagement.dto.DeviceResponse;
+import org.assessment.devicemanagement.model.Device;
+import org.assessment.devicemanagement.util.DeviceJsonWriter;
+import org.assessment.devicemanagement.util.DeviceMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * NDJSON export encoding of entities: map to {@link DeviceResponse} and let Jackson write it,
+ * versus {@link DeviceJsonWriter}. Run with {@code -prof gc} and compare
+ * {@code gc.alloc.rate.norm}; the output itself is byte-identical.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class DeviceJsonWriterBenchmark {
+
+  @Param({"1000", "100000"})
+  int size;
+
+  private ObjectMapper mapper;
+  private ObjectWriter responseWriter;
+  private List<Device> devices;
+  private final OutputStream sink = OutputStream.nullOutputStream();
+
+  @Setup
+  public void setUp() {
+    mapper = Jackson2ObjectMapperBuilder.json().build();
+    responseWriter = mapper.writerFor(DeviceResponse.class)
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    devices = BenchmarkData.devices(size);
+  }
+
+  @Benchmark
+  public void mapAndSerialize() throws IOException {
+    try (JsonGenerator gen = newGenerator()) {
+      for (Device d : devices) {
+        responseWriter.writeValue(gen, DeviceMapper.toResponse(d));
+        gen.writeRaw('\n');
+      }
+    }
+  }
+
+  @Benchmark
+  public void writeDirect() throws IOException {
+    DeviceJsonWriter writer = new DeviceJsonWriter();
+    try (JsonGenerator gen = newGenerator()) {
+      for (Device d : devices) {
+        writer.write(gen, d);
+        gen.writeRaw('\n');
+      }
+    }
+  }
+
+  private JsonGenerator newGenerator() throws IOException {
+    JsonGenerator gen = mapper.getFactory().createGenerator(sink);
+    gen.setRootValueSeparator(null);
+    return gen;
+  }
+}
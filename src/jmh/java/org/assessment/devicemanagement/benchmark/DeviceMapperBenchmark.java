@@ -0,0 +1,53 @@
+package org.assessment.devicemanagement.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.assessment.devicemanagement.dto.DeviceResponse;
+import org.assessment.devicemanagement.model.Device;
+import org.assessment.devicemanagement.util.DeviceMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of {@link DeviceMapper#toResponse} for a single device and for whole result lists, as the
+ * list and page endpoints map them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class DeviceMapperBenchmark {
+
+  @Param({"10", "1000", "100000", "1000000"})
+  int size;
+
+  private Device single;
+  private List<Device> devices;
+
+  @Setup
+  public void setUp() {
+    single = BenchmarkData.device(42);
+    devices = BenchmarkData.devices(size);
+  }
+
+  @Benchmark
+  public DeviceResponse toResponse() {
+    return DeviceMapper.toResponse(single);
+  }
+
+  @Benchmark
+  public List<DeviceResponse> toResponseList() {
+    return devices.stream().map(DeviceMapper::toResponse).toList();
+  }
+}
@@ -0,0 +1,55 @@
+package org.assessment.devicemanagement.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.assessment.devicemanagement.dto.DeviceResponse;
+import org.assessment.devicemanagement.util.DeviceMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Jackson serialization of {@link DeviceResponse} lists with the same module/feature set Spring
+ * Boot configures for the MVC converters. Output goes to a discarding stream so only encoding is
+ * measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class DeviceResponseSerializationBenchmark {
+
+  @Param({"10", "1000", "100000", "1000000"})
+  int size;
+
+  private ObjectWriter writer;
+  private List<DeviceResponse> responses;
+  private final OutputStream sink = OutputStream.nullOutputStream();
+
+  @Setup
+  public void setUp() {
+    ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+    writer = mapper.writer();
+    responses = BenchmarkData.devices(size).stream().map(DeviceMapper::toResponse).toList();
+  }
+
+  @Benchmark
+  public void writeList() throws IOException {
+    writer.writeValue(sink, responses);
+  }
+}
@@ -0,0 +1,120 @@
+package org.assessment.devicemanagement.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.assessment.devicemanagement.DeviceManagementServiceApplication;
+import org.assessment.devicemanagement.dto.CreateDeviceRequest;
+import org.assessment.devicemanagement.model.BatchItemOutcome;
+import org.assessment.devicemanagement.model.Device;
+import org.assessment.devicemanagement.model.DevicePage;
+import org.assessment.devicemanagement.model.DeviceState;
+import org.assessment.devicemanagement.service.DeviceBatchService;
+import org.assessment.devicemanagement.service.DeviceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Service calls against a real Postgres (Testcontainers) with the full application context, minus
+ * the web layer. Run with {@code -prof gc} (the profile default) to get allocations per operation
+ * next to ops/s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+public class DeviceServiceEndToEndBenchmark {
+
+  @Param({"100000"})
+  int seededDevices;
+
+  @Param({"true", "false"})
+  boolean cacheEnabled;
+
+  private PostgreSQLContainer<?> postgres;
+  private ConfigurableApplicationContext context;
+  private DeviceService service;
+  private UUID[] ids;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    postgres = new PostgreSQLContainer<>("postgres:16");
+    postgres.start();
+
+    context = new SpringApplicationBuilder(DeviceManagementServiceApplication.class)
+        .web(WebApplicationType.NONE)
+        .properties(
+            "spring.datasource.url=" + postgres.getJdbcUrl(),
+            "spring.datasource.username=" + postgres.getUsername(),
+            "spring.datasource.password=" + postgres.getPassword(),
+            "devices.cache.enabled=" + cacheEnabled,
+            "logging.level.root=WARN")
+        .run();
+    service = context.getBean(DeviceService.class);
+    ids = seed(context.getBean(DeviceBatchService.class));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+    postgres.stop();
+  }
+
+  @Benchmark
+  public Device getById() {
+    return service.get(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+  }
+
+  @Benchmark
+  public DevicePage firstPage() {
+    return service.getDevicePage(null, null, null, 50);
+  }
+
+  @Benchmark
+  public DevicePage brandAndStatePage() {
+    return service.getDevicePage("apple", DeviceState.AVAILABLE, null, 50);
+  }
+
+  @Benchmark
+  public Device createThenDelete() {
+    Device created = service.create(new CreateDeviceRequest("bench", "Bench", DeviceState.AVAILABLE));
+    service.delete(created.getId(), null);
+    return created;
+  }
+
+  private UUID[] seed(DeviceBatchService batch) {
+    List<UUID> seeded = new ArrayList<>(seededDevices);
+    for (int from = 0; from < seededDevices; from += 5000) {
+      List<CreateDeviceRequest> creates = new ArrayList<>();
+      for (int i = from; i < Math.min(from + 5000, seededDevices); i++) {
+        Device d = BenchmarkData.device(i);
+        creates.add(new CreateDeviceRequest(d.getName(), d.getBrand(), d.getState()));
+      }
+      for (BatchItemOutcome outcome : batch.apply(creates, List.of(), List.of())) {
+        seeded.add(outcome.device().getId());
+      }
+    }
+    return seeded.toArray(UUID[]::new);
+  }
+}
@@ -0,0 +1,61 @@
+package org.assessment.devicemanagement.benchmark;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.assessment.devicemanagement.dto.PatchDeviceRequest;
+import org.assessment.devicemanagement.model.DeviceState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Bean Validation of {@link PatchDeviceRequest} as performed for {@code @Valid} request bodies:
+ * a valid partial patch, and the empty patch rejected by {@code isAnyFieldPresent}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatchValidationBenchmark {
+
+  private final PatchDeviceRequest valid = new PatchDeviceRequest("Pixel 9", null, DeviceState.IN_USE);
+  private final PatchDeviceRequest empty = new PatchDeviceRequest(null, null, null);
+
+  private ValidatorFactory factory;
+  private Validator validator;
+
+  @Setup
+  public void setUp() {
+    factory = Validation.buildDefaultValidatorFactory();
+    validator = factory.getValidator();
+  }
+
+  @TearDown
+  public void tearDown() {
+    factory.close();
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<PatchDeviceRequest>> validPatch() {
+    return validator.validate(valid);
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<PatchDeviceRequest>> emptyPatch() {
+    return validator.validate(empty);
+  }
+}
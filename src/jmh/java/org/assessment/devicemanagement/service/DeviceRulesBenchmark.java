@@ -0,0 +1,79 @@
+package org.assessment.devicemanagement.service;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.assessment.devicemanagement.dto.PatchDeviceRequest;
+import org.assessment.devicemanagement.exception.DomainValidationException;
+import org.assessment.devicemanagement.model.Device;
+import org.assessment.devicemanagement.model.DeviceState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Entity-side rule checks used by the batch path. Lives in the service package because
+ * {@link DeviceRules} is package-private. The single-device path enforces the same rules in SQL
+ * and is covered by {@code DeviceServiceEndToEndBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeviceRulesBenchmark {
+
+  private final PatchDeviceRequest rename = new PatchDeviceRequest("renamed", null, null);
+  private final PatchDeviceRequest stateOnly = new PatchDeviceRequest(null, null, DeviceState.INACTIVE);
+
+  private Device available;
+  private Device inUse;
+
+  @Setup
+  public void setUp() {
+    available = device(DeviceState.AVAILABLE);
+    inUse = device(DeviceState.IN_USE);
+  }
+
+  @Benchmark
+  public Device patchAvailable() {
+    DeviceRules.assertMutableIdentityIfInUse(available, rename.name(), rename.brand());
+    DeviceRules.applyPatch(available, rename);
+    return available;
+  }
+
+  @Benchmark
+  public Device patchInUseStateOnly() {
+    DeviceRules.assertMutableIdentityIfInUse(inUse, stateOnly.name(), stateOnly.brand());
+    return inUse;
+  }
+
+  @Benchmark
+  public void rejectInUseRename(Blackhole bh) {
+    try {
+      DeviceRules.assertMutableIdentityIfInUse(inUse, rename.name(), rename.brand());
+    } catch (DomainValidationException e) {
+      bh.consume(e);
+    }
+  }
+
+  private static Device device(DeviceState state) {
+    Device d = new Device();
+    d.setName("device");
+    d.setBrand("Apple");
+    d.setState(state);
+    ReflectionTestUtils.setField(d, "id", UUID.randomUUID());
+    ReflectionTestUtils.setField(d, "createdAt", Instant.now());
+    return d;
+  }
+}
@@ -0,0 +1,72 @@
+package org.assessment.devicemanagement.archive;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.assessment.devicemanagement.config.ArchiveProperties;
+import org.assessment.devicemanagement.repository.DeviceArchiveRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically moves devices that have been INACTIVE for {@code devices.archive.inactive-for}
+ * into the {@code devices_archived} partition, in batches. Archived devices stay readable by id
+ * and through pages, search and export; {@code GET /v1/devices} skips them unless
+ * {@code includeArchived=true}. Any later write moves a device back.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "devices.archive", name = "enabled", havingValue = "true",
+    matchIfMissing = true)
+public class DeviceArchiver {
+
+  private final DeviceArchiveRepository archive;
+  private final ArchiveProperties properties;
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+      Thread.ofPlatform().name("device-archiver").daemon().factory());
+
+  @PostConstruct
+  void start() {
+    long interval = properties.interval().toMillis();
+    scheduler.scheduleWithFixedDelay(this::run, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  void stop() {
+    scheduler.shutdownNow();
+  }
+
+  void run() {
+    try {
+      int archived = archiveInactive();
+      if (archived > 0) {
+        log.info("Archived {} devices inactive for more than {}", archived,
+            properties.inactiveFor());
+      }
+    } catch (RuntimeException e) {
+      log.warn("Archiving inactive devices failed", e);
+    }
+  }
+
+  /**
+   * Archives every eligible device, one short transaction per batch so writers are never blocked
+   * for long.
+   */
+  int archiveInactive() {
+    Instant cutoff = Instant.now().minus(properties.inactiveFor());
+    int batchSize = Math.max(1, properties.batchSize());
+    int total = 0;
+    int moved;
+    do {
+      moved = archive.archiveInactiveBefore(cutoff, batchSize);
+      total += moved;
+    } while (moved == batchSize && !Thread.currentThread().isInterrupted());
+    return total;
+  }
+}
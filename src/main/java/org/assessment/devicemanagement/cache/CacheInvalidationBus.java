@@ -0,0 +1,26 @@
+package org.assessment.devicemanagement.cache;
+
+import java.util.UUID;
+
+/**
+ * Carries device cache invalidations between service instances.
+ */
+public interface CacheInvalidationBus {
+
+  /**
+   * Tells the other instances that {@code deviceId} changed. Called after commit.
+   */
+  void publish(UUID deviceId);
+
+  void subscribe(Listener listener);
+
+  interface Listener {
+
+    void invalidate(UUID deviceId);
+
+    /**
+     * Messages may have been missed (e.g. after a reconnect); drop everything.
+     */
+    void invalidateAll();
+  }
+}
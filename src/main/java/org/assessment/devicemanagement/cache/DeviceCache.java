@@ -0,0 +1,68 @@
+package org.assessment.devicemanagement.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.UUID;
+import java.util.function.Function;
+import org.assessment.devicemanagement.config.CacheProperties;
+import org.assessment.devicemanagement.event.DeviceChangedEvent;
+import org.assessment.devicemanagement.model.Device;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Bounded read-through cache of devices by id. Entries are dropped after a write commits, both
+ * here and (through the {@link CacheInvalidationBus}) on the other instances; the TTL bounds
+ * staleness should an invalidation be lost. Cached devices are detached and shared, so callers
+ * must treat them as read-only.
+ *
+ * <p>Hit/miss/eviction counts are published as the {@code cache.*} meters with
+ * {@code cache=devices}.
+ */
+@Component
+public class DeviceCache implements CacheInvalidationBus.Listener {
+
+  private final boolean enabled;
+  private final Cache<UUID, Device> cache;
+  private final CacheInvalidationBus bus;
+
+  public DeviceCache(CacheProperties properties, CacheInvalidationBus bus,
+      MeterRegistry registry) {
+    this.enabled = properties.enabled();
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(properties.maximumSize())
+        .expireAfterWrite(properties.ttl())
+        .recordStats()
+        .build();
+    this.bus = bus;
+    CaffeineCacheMetrics.monitor(registry, cache, "devices");
+    bus.subscribe(this);
+  }
+
+  /**
+   * Returns the cached device or loads it. Concurrent misses for the same id share one load;
+   * exceptions thrown by {@code loader} are propagated and nothing is cached.
+   */
+  public Device get(UUID id, Function<UUID, Device> loader) {
+    return enabled ? cache.get(id, loader) : loader.apply(id);
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onDeviceChanged(DeviceChangedEvent event) {
+    cache.invalidate(event.deviceId());
+    bus.publish(event.deviceId());
+  }
+
+  @Override
+  public void invalidate(UUID deviceId) {
+    cache.invalidate(deviceId);
+  }
+
+  @Override
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+}
@@ -0,0 +1,24 @@
+package org.assessment.devicemanagement.cache;
+
+import java.util.UUID;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Single-instance deployments: local eviction is all that is needed.
+ */
+@Component
+@ConditionalOnProperty(prefix = "devices.cache", name = "invalidation", havingValue = "local",
+    matchIfMissing = true)
+public class LocalCacheInvalidationBus implements CacheInvalidationBus {
+
+  @Override
+  public void publish(UUID deviceId) {
+    // nobody else to tell
+  }
+
+  @Override
+  public void subscribe(Listener listener) {
+    // no remote invalidations
+  }
+}
@@ -0,0 +1,131 @@
+package org.assessment.devicemanagement.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fans invalidations out through Postgres {@code LISTEN/NOTIFY}. Each instance keeps one
+ * dedicated connection (outside the Hikari pool) listening on {@value #CHANNEL}; notifications
+ * are sent through the pool from a separate thread so they never join a caller's transaction.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "devices.cache", name = "invalidation", havingValue = "postgres")
+public class PostgresCacheInvalidationBus implements CacheInvalidationBus {
+
+  static final String CHANNEL = "device_cache_invalidation";
+  private static final int POLL_TIMEOUT_MS = 500;
+  private static final long RECONNECT_DELAY_MS = 1_000;
+
+  private final DataSource dataSource;
+  private final DataSourceProperties dataSourceProperties;
+  private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+  private final ExecutorService notifier = Executors.newSingleThreadExecutor(
+      Thread.ofPlatform().name("device-cache-notify").daemon().factory());
+  private volatile boolean running;
+  private Thread listenerThread;
+
+  public PostgresCacheInvalidationBus(DataSource dataSource,
+      DataSourceProperties dataSourceProperties) {
+    this.dataSource = dataSource;
+    this.dataSourceProperties = dataSourceProperties;
+  }
+
+  @PostConstruct
+  void start() {
+    running = true;
+    listenerThread = Thread.ofPlatform().name("device-cache-listen").daemon().start(this::listen);
+  }
+
+  @PreDestroy
+  void stop() throws InterruptedException {
+    running = false;
+    listenerThread.interrupt();
+    notifier.shutdown();
+    notifier.awaitTermination(2, TimeUnit.SECONDS);
+  }
+
+  @Override
+  public void publish(UUID deviceId) {
+    notifier.execute(() -> {
+      try (Connection conn = dataSource.getConnection();
+          PreparedStatement ps = conn.prepareStatement("SELECT pg_notify(?, ?)")) {
+        ps.setString(1, CHANNEL);
+        ps.setString(2, deviceId.toString());
+        ps.execute();
+      } catch (SQLException e) {
+        log.warn("Could not publish cache invalidation for {}", deviceId, e);
+      }
+    });
+  }
+
+  @Override
+  public void subscribe(Listener listener) {
+    listeners.add(listener);
+  }
+
+  private void listen() {
+    while (running) {
+      try (Connection conn = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+          dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+        try (Statement st = conn.createStatement()) {
+          st.execute("LISTEN " + CHANNEL);
+        }
+        // Anything sent while we were not listening is lost
+        listeners.forEach(Listener::invalidateAll);
+
+        PGConnection pg = conn.unwrap(PGConnection.class);
+        while (running) {
+          PGNotification[] notifications = pg.getNotifications(POLL_TIMEOUT_MS);
+          if (notifications == null) {
+            continue;
+          }
+          for (PGNotification n : notifications) {
+            dispatch(n.getParameter());
+          }
+        }
+      } catch (SQLException e) {
+        if (running) {
+          log.warn("Cache invalidation listener lost its connection; reconnecting", e);
+          sleepBeforeReconnect();
+        }
+      }
+    }
+  }
+
+  private void dispatch(String payload) {
+    try {
+      UUID id = UUID.fromString(payload);
+      listeners.forEach(l -> l.invalidate(id));
+    } catch (IllegalArgumentException e) {
+      log.warn("Ignoring malformed cache invalidation payload '{}'", payload);
+    }
+  }
+
+  private void sleepBeforeReconnect() {
+    try {
+      Thread.sleep(RECONNECT_DELAY_MS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      running = false;
+    }
+  }
+}
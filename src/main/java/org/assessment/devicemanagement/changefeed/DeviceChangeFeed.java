@@ -0,0 +1,119 @@
+package org.assessment.devicemanagement.changefeed;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.assessment.devicemanagement.config.ChangeFeedProperties;
+import org.assessment.devicemanagement.event.DeviceChangedEvent;
+import org.assessment.devicemanagement.model.DeviceChange;
+import org.assessment.devicemanagement.repository.DeviceChangeRepository;
+import org.assessment.devicemanagement.util.ChangeCursor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Reads the change log and parks long-polling requests until something newer than their
+ * {@code since} is committed. Waiters are woken right after a local commit and, for writes made
+ * by other instances or held back behind a still-running older transaction, by a periodic
+ * re-check; one thread serves all of them, so a parked request holds neither a servlet thread nor
+ * a connection.
+ */
+@Slf4j
+@Component
+public class DeviceChangeFeed {
+
+  private final DeviceChangeRepository changes;
+  private final ChangeFeedProperties properties;
+  private final Set<Waiter> waiters = ConcurrentHashMap.newKeySet();
+  private final AtomicBoolean wakeScheduled = new AtomicBoolean();
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+      Thread.ofPlatform().name("device-changes-poll").daemon().factory());
+
+  public DeviceChangeFeed(DeviceChangeRepository changes, ChangeFeedProperties properties) {
+    this.changes = changes;
+    this.properties = properties;
+  }
+
+  @PostConstruct
+  void start() {
+    long interval = properties.pollInterval().toMillis();
+    scheduler.scheduleWithFixedDelay(this::wake, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  void stop() {
+    scheduler.shutdownNow();
+    waiters.forEach(waiter -> waiter.result.complete(List.of()));
+  }
+
+  /**
+   * Returns up to {@code limit} changes after {@code since}. When there are none yet, completes
+   * once one is committed or, after {@code wait}, with an empty list.
+   */
+  public CompletableFuture<List<DeviceChange>> poll(ChangeCursor since, int limit,
+      Duration wait) {
+    int size = Math.max(1, Math.min(limit, properties.maxLimit()));
+    List<DeviceChange> found = changes.findSince(since, size);
+    if (!found.isEmpty() || wait.isZero() || wait.isNegative()) {
+      return CompletableFuture.completedFuture(found);
+    }
+
+    Duration timeout = wait.compareTo(properties.maxWait()) > 0 ? properties.maxWait() : wait;
+    Waiter waiter = new Waiter(since, size, new CompletableFuture<>());
+    waiters.add(waiter);
+    waiter.result
+        .completeOnTimeout(List.of(), timeout.toMillis(), TimeUnit.MILLISECONDS)
+        .whenComplete((result, error) -> waiters.remove(waiter));
+    // A change may have committed between the query above and the registration
+    signal();
+    return waiter.result;
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onDeviceChanged(DeviceChangedEvent event) {
+    signal();
+  }
+
+  // A batch commit fires one event per item; coalesce them into a single wake-up
+  private void signal() {
+    if (!waiters.isEmpty() && wakeScheduled.compareAndSet(false, true)) {
+      scheduler.execute(this::wake);
+    }
+  }
+
+  private void wake() {
+    wakeScheduled.set(false);
+    if (waiters.isEmpty()) {
+      return;
+    }
+    try {
+      ChangeCursor latest = changes.latest();
+      for (Waiter waiter : waiters) {
+        if (latest.compareTo(waiter.since) > 0 && !waiter.result.isDone()) {
+          List<DeviceChange> found = changes.findSince(waiter.since, waiter.limit);
+          if (!found.isEmpty()) {
+            waiter.result.complete(found);
+          }
+        }
+      }
+    } catch (RuntimeException e) {
+      // Waiters stay parked and are retried on the next tick or time out
+      log.warn("Could not check the device change log", e);
+    }
+  }
+
+  private record Waiter(ChangeCursor since, int limit,
+                        CompletableFuture<List<DeviceChange>> result) {
+
+  }
+}
@@ -0,0 +1,60 @@
+package org.assessment.devicemanagement.changefeed;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.assessment.devicemanagement.config.ChangeFeedProperties;
+import org.assessment.devicemanagement.repository.DeviceChangeRepository;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the change log bounded: periodically deletes changes older than
+ * {@code devices.changes.retention}, one short transaction per batch.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DeviceChangePruner {
+
+  private final DeviceChangeRepository changes;
+  private final ChangeFeedProperties properties;
+  private final ScheduledExecutorService cleaner = Executors.newSingleThreadScheduledExecutor(
+      Thread.ofPlatform().name("device-changes-cleanup").daemon().factory());
+
+  @PostConstruct
+  void start() {
+    long interval = properties.cleanupInterval().toMillis();
+    cleaner.scheduleWithFixedDelay(this::run, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  void stop() {
+    cleaner.shutdownNow();
+  }
+
+  void run() {
+    try {
+      int deleted = deleteExpired();
+      log.debug("Deleted {} device changes older than {}", deleted, properties.retention());
+    } catch (RuntimeException e) {
+      log.warn("Deleting old device changes failed", e);
+    }
+  }
+
+  int deleteExpired() {
+    Instant cutoff = Instant.now().minus(properties.retention());
+    int batchSize = Math.max(1, properties.cleanupBatchSize());
+    int total = 0;
+    int deleted;
+    do {
+      deleted = changes.deleteBefore(cutoff, batchSize);
+      total += deleted;
+    } while (deleted == batchSize && !Thread.currentThread().isInterrupted());
+    return total;
+  }
+}
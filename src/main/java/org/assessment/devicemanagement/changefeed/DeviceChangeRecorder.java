@@ -0,0 +1,52 @@
+package org.assessment.devicemanagement.changefeed;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.assessment.devicemanagement.event.DeviceChangedEvent;
+import org.assessment.devicemanagement.repository.DeviceChangeRepository;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Writes every {@link DeviceChangedEvent} to the change log in the transaction that produced it.
+ * Events are buffered per transaction and appended in one JDBC batch just before commit.
+ */
+@Component
+@RequiredArgsConstructor
+public class DeviceChangeRecorder {
+
+  private final DeviceChangeRepository changes;
+
+  @EventListener
+  public void onDeviceChanged(DeviceChangedEvent event) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      changes.append(List.of(event));
+      return;
+    }
+    PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+    if (pending == null) {
+      pending = new PendingChanges();
+      TransactionSynchronizationManager.bindResource(this, pending);
+      TransactionSynchronizationManager.registerSynchronization(pending);
+    }
+    pending.events.add(event);
+  }
+
+  private final class PendingChanges implements TransactionSynchronization {
+
+    private final List<DeviceChangedEvent> events = new ArrayList<>();
+
+    @Override
+    public void beforeCommit(boolean readOnly) {
+      changes.append(events);
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+      TransactionSynchronizationManager.unbindResourceIfPossible(DeviceChangeRecorder.this);
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package org.assessment.devicemanagement.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled     whether {@code DeviceArchiver} runs on this instance
+ * @param inactiveFor how long a device has to stay INACTIVE before it is archived
+ * @param interval    delay between archival runs
+ * @param batchSize   devices moved per statement (and transaction)
+ */
+@ConfigurationProperties(prefix = "devices.archive")
+public record ArchiveProperties(@DefaultValue("true") boolean enabled,
+                                @DefaultValue("90d") Duration inactiveFor,
+                                @DefaultValue("1h") Duration interval,
+                                @DefaultValue("1000") int batchSize) {
+
+}
@@ -0,0 +1,12 @@
+package org.assessment.devicemanagement.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param chunkSize items written per transaction by the batch endpoint
+ */
+@ConfigurationProperties(prefix = "devices.batch")
+public record BatchProperties(@DefaultValue("500") int chunkSize) {
+
+}
@@ -0,0 +1,20 @@
+package org.assessment.devicemanagement.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled      serve {@code GET /v1/devices/{id}} from the in-process cache
+ * @param maximumSize  devices kept before least-recently-used eviction
+ * @param ttl          upper bound on how long a device may be served without re-reading it
+ * @param invalidation how other instances learn about writes: {@code local} (single instance)
+ *                     or {@code postgres} (LISTEN/NOTIFY)
+ */
+@ConfigurationProperties(prefix = "devices.cache")
+public record CacheProperties(@DefaultValue("true") boolean enabled,
+                              @DefaultValue("100000") long maximumSize,
+                              @DefaultValue("5m") Duration ttl,
+                              @DefaultValue("local") String invalidation) {
+
+}
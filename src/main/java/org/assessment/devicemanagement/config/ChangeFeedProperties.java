@@ -0,0 +1,25 @@
+package org.assessment.devicemanagement.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param maxWait          upper bound for the {@code wait} of a long-polling change request
+ * @param pollInterval     how often waiting requests re-check the log for changes committed by
+ *                         other instances (local commits wake them immediately)
+ * @param maxLimit         most changes returned per request
+ * @param retention        how long changes are kept; clients further behind must re-read
+ *                         {@code GET /v1/devices}
+ * @param cleanupInterval  how often older changes are deleted
+ * @param cleanupBatchSize changes deleted per transaction
+ */
+@ConfigurationProperties(prefix = "devices.changes")
+public record ChangeFeedProperties(@DefaultValue("30s") Duration maxWait,
+                                   @DefaultValue("1s") Duration pollInterval,
+                                   @DefaultValue("1000") int maxLimit,
+                                   @DefaultValue("7d") Duration retention,
+                                   @DefaultValue("1h") Duration cleanupInterval,
+                                   @DefaultValue("10000") int cleanupBatchSize) {
+
+}
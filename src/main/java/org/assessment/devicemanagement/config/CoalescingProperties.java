@@ -0,0 +1,18 @@
+package org.assessment.devicemanagement.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled merge concurrent identical {@code get} / {@code getDevices} calls into one query
+ * @param window  how long a finished result is still shared with identical calls; {@code 0}
+ *                merges only calls that overlap the query
+ * @param maxKeys distinct ids / filters tracked at once
+ */
+@ConfigurationProperties(prefix = "devices.coalescing")
+public record CoalescingProperties(@DefaultValue("true") boolean enabled,
+                                   @DefaultValue("5ms") Duration window,
+                                   @DefaultValue("10000") long maxKeys) {
+
+}
@@ -0,0 +1,61 @@
+package org.assessment.devicemanagement.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.assessment.devicemanagement.datasource.AdmissionControlledDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Wraps the Hikari pool in an {@link AdmissionControlledDataSource} with one permit per pooled
+ * connection. Meant to be switched on together with {@code spring.threads.virtual.enabled}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "devices.db.admission", name = "enabled", havingValue = "true")
+public class DbAdmissionConfig {
+
+  @Bean
+  static BeanPostProcessor admissionControlledDataSourcePostProcessor(
+      ObjectProvider<DbAdmissionProperties> properties) {
+    return new AdmissionPostProcessor(properties);
+  }
+
+  @Bean
+  MeterBinder dbAdmissionMetrics(DataSource dataSource) {
+    return registry -> {
+      // May sit behind the replica routing proxy
+      try {
+        if (dataSource.isWrapperFor(AdmissionControlledDataSource.class)) {
+          dataSource.unwrap(AdmissionControlledDataSource.class).bindTo(registry);
+        }
+      } catch (SQLException e) {
+        throw new IllegalStateException("Cannot inspect the application DataSource", e);
+      }
+    };
+  }
+
+  // Ordered first, so it still sees the bare Hikari pool when other wrappers are configured
+  private record AdmissionPostProcessor(ObjectProvider<DbAdmissionProperties> properties)
+      implements BeanPostProcessor, Ordered {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+      if (bean instanceof HikariDataSource hikari) {
+        return new AdmissionControlledDataSource(hikari, hikari.getMaximumPoolSize(),
+            properties.getObject().acquireTimeout());
+      }
+      return bean;
+    }
+
+    @Override
+    public int getOrder() {
+      return Ordered.HIGHEST_PRECEDENCE;
+    }
+  }
+}
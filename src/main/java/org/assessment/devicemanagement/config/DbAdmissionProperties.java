@@ -0,0 +1,15 @@
+package org.assessment.devicemanagement.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled        gate connection checkout behind a fair semaphore sized to the Hikari pool
+ * @param acquireTimeout how long a request may queue for a connection before failing
+ */
+@ConfigurationProperties(prefix = "devices.db.admission")
+public record DbAdmissionProperties(@DefaultValue("false") boolean enabled,
+                                    @DefaultValue("30s") Duration acquireTimeout) {
+
+}
@@ -0,0 +1,25 @@
+package org.assessment.devicemanagement.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.assessment.devicemanagement.util.CompactBinaryModule;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Serves {@code application/cbor} when clients ask for it; JSON stays the default. Uses the
+ * {@link CompactBinaryModule} encodings (binary UUIDs, epoch-micros timestamps).
+ */
+@Component
+public class DeviceCborHttpMessageConverter extends MappingJackson2CborHttpMessageConverter {
+
+  public DeviceCborHttpMessageConverter() {
+    super(cborMapper());
+  }
+
+  static ObjectMapper cborMapper() {
+    return Jackson2ObjectMapperBuilder.cbor()
+        .modulesToInstall(new CompactBinaryModule())
+        .build();
+  }
+}
@@ -0,0 +1,17 @@
+package org.assessment.devicemanagement.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param bufferSize events buffered per subscriber; when full the oldest is dropped
+ * @param timeout    lifetime of one SSE connection; clients reconnect afterwards
+ * @param heartbeat  interval of keep-alive comments, which also detect dead connections
+ */
+@ConfigurationProperties(prefix = "devices.events")
+public record DeviceEventsProperties(@DefaultValue("256") int bufferSize,
+                                     @DefaultValue("30m") Duration timeout,
+                                     @DefaultValue("15s") Duration heartbeat) {
+
+}
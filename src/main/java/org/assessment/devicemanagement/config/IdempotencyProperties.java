@@ -0,0 +1,17 @@
+package org.assessment.devicemanagement.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param ttl             how long a key is remembered; a retry after that creates a new device
+ * @param cleanupInterval how often expired keys are deleted
+ * @param cacheSize       completed keys kept in memory so retries skip the database
+ */
+@ConfigurationProperties(prefix = "devices.idempotency")
+public record IdempotencyProperties(@DefaultValue("24h") Duration ttl,
+                                    @DefaultValue("1h") Duration cleanupInterval,
+                                    @DefaultValue("10000") int cacheSize) {
+
+}
@@ -0,0 +1,25 @@
+package org.assessment.devicemanagement.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled      record every device mutation in the outbox and publish it
+ * @param sink         where messages go: {@code file} (NDJSON, {@code file}), {@code memory}
+ *                     (tests) or any other value together with a custom {@code OutboxSink} bean
+ * @param file         the file sink's target
+ * @param workers      publisher threads on this instance
+ * @param batchSize    messages claimed, published and deleted per transaction
+ * @param pollInterval how long an idle worker waits before looking again
+ */
+@ConfigurationProperties(prefix = "devices.outbox")
+public record OutboxProperties(@DefaultValue("false") boolean enabled,
+                               @DefaultValue("file") String sink,
+                               @DefaultValue("device-outbox.ndjson") Path file,
+                               @DefaultValue("2") int workers,
+                               @DefaultValue("100") int batchSize,
+                               @DefaultValue("1s") Duration pollInterval) {
+
+}
@@ -0,0 +1,59 @@
+package org.assessment.devicemanagement.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.assessment.devicemanagement.ratelimit.ClientIdentity;
+import org.assessment.devicemanagement.ratelimit.ClientRateLimiter;
+import org.assessment.devicemanagement.ratelimit.LoadShedder;
+import org.assessment.devicemanagement.ratelimit.RateLimitInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Per-client rate limiting and load shedding for the {@code @RequestCost} endpoints, and the
+ * {@link ClientIdentity} they (and idempotency keys) tell clients apart by.
+ */
+@Configuration(proxyBeanMethods = false)
+public class RateLimitConfig {
+
+  @Bean
+  @ConditionalOnProperty(prefix = "devices.rate-limit", name = "enabled", havingValue = "true",
+      matchIfMissing = true)
+  ClientRateLimiter clientRateLimiter(RateLimitProperties properties) {
+    return new ClientRateLimiter(properties.capacity(), properties.refillPerSecond(),
+        properties.maxClients());
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = "devices.rate-limit.shedding", name = "enabled",
+      havingValue = "true", matchIfMissing = true)
+  LoadShedder loadShedder(RateLimitProperties properties, MeterRegistry registry) {
+    RateLimitProperties.Shedding shedding = properties.shedding();
+    LoadShedder shedder = new LoadShedder(registry, shedding.waitThreshold(), shedding.step(),
+        shedding.maxRate());
+    shedder.start(shedding.sampleInterval());
+    return shedder;
+  }
+
+  @Bean
+  ClientIdentity clientIdentity(RateLimitProperties properties) {
+    return new ClientIdentity(properties.clientHeader(), properties.trustedProxies());
+  }
+
+  @Bean
+  WebMvcConfigurer rateLimitWebMvcConfigurer(ObjectProvider<ClientRateLimiter> limiter,
+      ObjectProvider<LoadShedder> shedder, ClientIdentity clients,
+      RateLimitProperties properties, MeterRegistry registry) {
+    RateLimitInterceptor interceptor = new RateLimitInterceptor(limiter.getIfAvailable(),
+        shedder.getIfAvailable(), clients, properties.shedding().sampleInterval(), registry);
+    return new WebMvcConfigurer() {
+      @Override
+      public void addInterceptors(InterceptorRegistry interceptors) {
+        interceptors.addInterceptor(interceptor).addPathPatterns("/v1/devices/**", "/v1/devices");
+      }
+    };
+  }
+}
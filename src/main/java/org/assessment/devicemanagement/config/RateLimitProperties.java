@@ -0,0 +1,42 @@
+package org.assessment.devicemanagement.config;
+
+import java.time.Duration;
+import java.util.Set;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled         limit each client to {@code refillPerSecond} request tokens per second
+ *                        (see {@code @RequestCost} for what a request costs)
+ * @param capacity        tokens a client may spend in a burst
+ * @param refillPerSecond sustained tokens per second and client
+ * @param clientHeader    request header identifying the client, honoured only on requests from
+ *                        {@code trustedProxies}; the remote address otherwise
+ * @param trustedProxies  remote addresses (e.g. the ingress) allowed to set {@code clientHeader}
+ * @param maxClients      clients tracked at once
+ * @param shedding        adaptive load shedding while connection waits are high
+ */
+@ConfigurationProperties(prefix = "devices.rate-limit")
+public record RateLimitProperties(@DefaultValue("true") boolean enabled,
+                                  @DefaultValue("200") int capacity,
+                                  @DefaultValue("100") double refillPerSecond,
+                                  @DefaultValue("X-Client-Id") String clientHeader,
+                                  @DefaultValue Set<String> trustedProxies,
+                                  @DefaultValue("100000") long maxClients,
+                                  @DefaultValue Shedding shedding) {
+
+  /**
+   * @param enabled        shed rate-limited requests with 503 while the database is saturated
+   * @param waitThreshold  mean connection wait above which shedding increases
+   * @param sampleInterval how often the wait is measured; also the 503 Retry-After
+   * @param step           change of the shedding rate per sample
+   * @param maxRate        upper bound of the share of requests shed
+   */
+  public record Shedding(@DefaultValue("true") boolean enabled,
+                         @DefaultValue("100ms") Duration waitThreshold,
+                         @DefaultValue("1s") Duration sampleInterval,
+                         @DefaultValue("0.1") double step,
+                         @DefaultValue("0.9") double maxRate) {
+
+  }
+}
@@ -0,0 +1,29 @@
+package org.assessment.devicemanagement.config;
+
+import java.time.Duration;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled          route read-only transactions to {@code urls}
+ * @param urls             JDBC URLs of the read replicas
+ * @param username         replica credentials; the primary's when unset
+ * @param password         replica credentials; the primary's when unset
+ * @param poolSize         connections per replica
+ * @param maxLag           replicas further behind than this are skipped
+ * @param lagCheckInterval how often replica lag is measured
+ * @param stickyAfterWrite how long a client's reads stay on the primary after its own write;
+ *                         zero disables read-your-writes
+ */
+@ConfigurationProperties(prefix = "devices.db.replicas")
+public record ReplicaProperties(@DefaultValue("false") boolean enabled,
+                                @DefaultValue List<String> urls,
+                                String username,
+                                String password,
+                                @DefaultValue("10") int poolSize,
+                                @DefaultValue("5s") Duration maxLag,
+                                @DefaultValue("5s") Duration lagCheckInterval,
+                                @DefaultValue("5s") Duration stickyAfterWrite) {
+
+}
@@ -0,0 +1,89 @@
+package org.assessment.devicemanagement.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.assessment.devicemanagement.datasource.ReadYourWritesFilter;
+import org.assessment.devicemanagement.datasource.ReplicaPool;
+import org.assessment.devicemanagement.datasource.ReplicaRoutingDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.Assert;
+
+/**
+ * Sends read-only transactions to read replicas: the application's DataSource is wrapped as
+ * {@code LazyConnectionDataSourceProxy -> ReplicaRoutingDataSource -> primary}, with a Hikari
+ * pool per replica. Writes, non-transactional access (Flyway, LISTEN/NOTIFY) and reads that
+ * require the primary keep using the primary pool.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "devices.db.replicas", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+  @Bean
+  ReplicaPool replicaPool(ReplicaProperties properties, DataSourceProperties primary) {
+    Assert.state(!properties.urls().isEmpty(),
+        "devices.db.replicas.urls must be set when replica routing is enabled");
+    Map<String, DataSource> replicas = new LinkedHashMap<>();
+    for (int i = 0; i < properties.urls().size(); i++) {
+      HikariDataSource replica = new HikariDataSource();
+      replica.setPoolName("replica-" + i);
+      replica.setJdbcUrl(properties.urls().get(i));
+      replica.setUsername(properties.username() != null ? properties.username()
+          : primary.determineUsername());
+      replica.setPassword(properties.password() != null ? properties.password()
+          : primary.determinePassword());
+      replica.setMaximumPoolSize(properties.poolSize());
+      replica.setReadOnly(true);
+      replicas.put(replica.getPoolName(), replica);
+    }
+    ReplicaPool pool = new ReplicaPool(replicas, properties.maxLag());
+    pool.start(properties.lagCheckInterval());
+    return pool;
+  }
+
+  @Bean
+  static BeanPostProcessor replicaRoutingDataSourcePostProcessor(
+      ObjectProvider<ReplicaPool> replicas) {
+    return new RoutingPostProcessor(replicas);
+  }
+
+  @Bean
+  FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+      ReplicaProperties properties) {
+    var registration = new FilterRegistrationBean<>(
+        new ReadYourWritesFilter(properties.stickyAfterWrite()));
+    registration.setEnabled(!properties.stickyAfterWrite().isZero());
+    return registration;
+  }
+
+  /**
+   * Runs after the admission-control wrapper (see {@link DbAdmissionConfig}), so admission
+   * keeps gating the primary pool only; replica pools have their own limits.
+   */
+  private record RoutingPostProcessor(ObjectProvider<ReplicaPool> replicas)
+      implements BeanPostProcessor, Ordered {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+      if (bean instanceof DataSource primary && !(bean instanceof LazyConnectionDataSourceProxy)) {
+        return new LazyConnectionDataSourceProxy(
+            new ReplicaRoutingDataSource(primary, replicas.getObject()));
+      }
+      return bean;
+    }
+
+    @Override
+    public int getOrder() {
+      return Ordered.LOWEST_PRECEDENCE;
+    }
+  }
+}
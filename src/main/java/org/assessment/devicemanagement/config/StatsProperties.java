@@ -0,0 +1,14 @@
+package org.assessment.devicemanagement.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param reconcileInterval how often the in-memory counters are replaced by a fresh
+ *                          {@code GROUP BY}; bounds drift from other instances' writes
+ */
+@ConfigurationProperties(prefix = "devices.stats")
+public record StatsProperties(@DefaultValue("1m") Duration reconcileInterval) {
+
+}
@@ -0,0 +1,75 @@
+package org.assessment.devicemanagement.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.assessment.devicemanagement.dto.BatchDeviceRequest;
+import org.assessment.devicemanagement.dto.BatchDeviceResponse;
+import org.assessment.devicemanagement.dto.BatchItemResult;
+import org.assessment.devicemanagement.dto.StateTransitionRequest;
+import org.assessment.devicemanagement.dto.StateTransitionResponse;
+import org.assessment.devicemanagement.model.BatchItemOutcome;
+import org.assessment.devicemanagement.service.DeviceBatchService;
+import org.assessment.devicemanagement.util.DeviceMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Tag(name = "Devices API", description = "Endpoints for managing device resources")
+@RestController
+@RequestMapping("/v1")
+@RequiredArgsConstructor
+@Validated
+public class DeviceBatchController {
+
+  private final DeviceBatchService batchService;
+
+  @Operation(summary = "Create, patch and delete many devices in one request")
+  @PostMapping("/devices:batch")
+  public ResponseEntity<BatchDeviceResponse> batch(@Valid @RequestBody BatchDeviceRequest request) {
+    List<BatchItemResult> results = batchService
+        .apply(request.create(), request.patch(), request.delete())
+        .stream()
+        .map(DeviceBatchController::toResult)
+        .toList();
+    int succeeded = (int) results.stream().filter(r -> r.status() < 400).count();
+    return ResponseEntity.ok(
+        new BatchDeviceResponse(succeeded, results.size() - succeeded, results));
+  }
+
+  @Operation(summary = "Move every device matching brand, current state and createdAt range to "
+      + "a target state")
+  @PostMapping("/devices/state-transitions")
+  public ResponseEntity<StateTransitionResponse> transitionStates(
+      @Valid @RequestBody StateTransitionRequest request) {
+    long updated = batchService.transitionStates(request.brand(), request.state(),
+        request.createdFrom(), request.createdTo(), request.targetState());
+    return ResponseEntity.ok(new StateTransitionResponse(updated));
+  }
+
+  private static BatchItemResult toResult(BatchItemOutcome outcome) {
+    HttpStatus status = switch (outcome.status()) {
+      case CREATED -> HttpStatus.CREATED;
+      case UPDATED -> HttpStatus.OK;
+      case DELETED -> HttpStatus.NO_CONTENT;
+      case NOT_FOUND -> HttpStatus.NOT_FOUND;
+      case CONFLICT -> HttpStatus.CONFLICT;
+      case FAILED -> HttpStatus.INTERNAL_SERVER_ERROR;
+    };
+    boolean withBody = outcome.device() != null
+        && outcome.operation() != BatchItemOutcome.Operation.DELETE;
+    return new BatchItemResult(
+        outcome.operation(),
+        outcome.index(),
+        outcome.id() != null ? outcome.id().toString() : null,
+        status.value(),
+        outcome.message(),
+        withBody ? DeviceMapper.toResponse(outcome.device()) : null);
+  }
+}
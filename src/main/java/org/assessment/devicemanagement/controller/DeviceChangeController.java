@@ -0,0 +1,50 @@
+package org.assessment.devicemanagement.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import lombok.RequiredArgsConstructor;
+import org.assessment.devicemanagement.changefeed.DeviceChangeFeed;
+import org.assessment.devicemanagement.dto.DeviceChangeResponse;
+import org.assessment.devicemanagement.dto.DeviceChangesResponse;
+import org.assessment.devicemanagement.model.DeviceChange;
+import org.assessment.devicemanagement.util.ChangeCursor;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@Tag(name = "Devices API", description = "Endpoints for managing device resources")
+@RestController
+@RequestMapping("/v1/devices")
+@RequiredArgsConstructor
+@Validated
+public class DeviceChangeController {
+
+  private final DeviceChangeFeed changeFeed;
+
+  @Operation(summary = "Fetch device changes after a position, optionally long-polling")
+  @GetMapping("/changes")
+  public CompletableFuture<DeviceChangesResponse> changes(
+      @RequestParam(required = false) String since,
+      @RequestParam(defaultValue = "500") int limit,
+      @RequestParam(defaultValue = "0") int wait
+  ) {
+    ChangeCursor after = ChangeCursor.decode(since);
+    // wait is in seconds; capped by devices.changes.max-wait
+    return changeFeed.poll(after, limit, Duration.ofSeconds(wait))
+        .thenApply(found -> toResponse(after, found));
+  }
+
+  private static DeviceChangesResponse toResponse(ChangeCursor since, List<DeviceChange> found) {
+    var items = found.stream()
+        .map(c -> new DeviceChangeResponse(c.seq(), c.type(), c.deviceId().toString(), c.name(),
+            c.brand(), c.state(), c.version(), c.changedAt()))
+        .toList();
+    ChangeCursor next = found.isEmpty() ? since : found.get(found.size() - 1).cursor();
+    return new DeviceChangesResponse(items, next.encode());
+  }
+}
@@ -2,21 +2,58 @@ package org.assessment.devicemanagement.controller;
 
 import static org.assessment.devicemanagement.util.DeviceMapper.toResponse;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
+import org.assessment.devicemanagement.config.DeviceCborHttpMessageConverter;
+import org.assessment.devicemanagement.datasource.ReadRouting;
 import org.assessment.devicemanagement.dto.CreateDeviceRequest;
+import org.assessment.devicemanagement.dto.DevicePageResponse;
 import org.assessment.devicemanagement.dto.DeviceResponse;
+import org.assessment.devicemanagement.dto.DeviceViewPageResponse;
+import org.assessment.devicemanagement.dto.DeviceViewResponse;
 import org.assessment.devicemanagement.dto.PatchDeviceRequest;
 import org.assessment.devicemanagement.dto.UpdateDeviceRequest;
+import org.assessment.devicemanagement.exception.InvalidParameterException;
+import org.assessment.devicemanagement.idempotency.IdempotentDeviceCreator;
+import org.assessment.devicemanagement.model.Device;
+import org.assessment.devicemanagement.model.DeviceField;
+import org.assessment.devicemanagement.model.DeviceFilter;
+import org.assessment.devicemanagement.model.DevicePage;
+import org.assessment.devicemanagement.model.DeviceSearchPage;
+import org.assessment.devicemanagement.model.DeviceSort;
 import org.assessment.devicemanagement.model.DeviceState;
+import org.assessment.devicemanagement.model.DeviceViewPage;
+import org.assessment.devicemanagement.ratelimit.ClientIdentity;
+import org.assessment.devicemanagement.ratelimit.RequestCost;
 import org.assessment.devicemanagement.service.DeviceService;
+import org.assessment.devicemanagement.util.DeviceCursor;
+import org.assessment.devicemanagement.util.DeviceJsonWriter;
 import org.assessment.devicemanagement.util.DeviceMapper;
+import org.assessment.devicemanagement.util.ETags;
+import org.assessment.devicemanagement.util.SearchCursor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -25,9 +62,11 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Tag(name = "Devices API", description = "Endpoints for managing device resources")
 @RestController
@@ -36,49 +75,260 @@ import org.springframework.web.bind.annotation.RestController;
 @Validated
 public class DeviceController {
 
+  static final String APPLICATION_CBOR_SEQ_VALUE = "application/cbor-seq";
+  static final MediaType APPLICATION_CBOR_SEQ = MediaType.valueOf(APPLICATION_CBOR_SEQ_VALUE);
+  static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+  static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
   public final DeviceService service;
+  private final ObjectMapper objectMapper;
+  private final DeviceCborHttpMessageConverter cborConverter;
+  private final IdempotentDeviceCreator idempotentCreator;
+  private final ClientIdentity clients;
 
   //
-  @Operation(summary = "Create a new device")
+  @Operation(summary = "Create a new device; retries with the same Idempotency-Key return the "
+      + "original response instead of creating another device")
   @PostMapping
-  public ResponseEntity<DeviceResponse> create(@Valid @RequestBody CreateDeviceRequest request) {
-    return ResponseEntity.status(HttpStatus.CREATED).body(toResponse(service.create(request)));
+  public ResponseEntity<DeviceResponse> create(@Valid @RequestBody CreateDeviceRequest request,
+      @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+      HttpServletRequest httpRequest) {
+    if (idempotencyKey != null) {
+      IdempotentDeviceCreator.Result result =
+          idempotentCreator.create(clients.of(httpRequest), idempotencyKey, request);
+      return ResponseEntity.status(HttpStatus.CREATED)
+          .eTag(ETags.of(result.response().version()))
+          .header(IDEMPOTENT_REPLAYED, Boolean.toString(result.replayed()))
+          .body(result.response());
+    }
+    Device created = service.create(request);
+    return ResponseEntity.status(HttpStatus.CREATED).eTag(ETags.of(created))
+        .body(toResponse(created));
   }
 
-  @Operation(summary = "Fetch a single device by id")
+  @Operation(summary = "Fetch a single device by id (honours If-None-Match)")
   @GetMapping("/{id}")
+  @RequestCost(1)
   public ResponseEntity<DeviceResponse> getById(@PathVariable UUID id) {
-    return ResponseEntity.ok(toResponse(service.get(id)));
+    // Spring answers 304 itself when If-None-Match matches the ETag of a 200 GET response
+    Device device = service.get(id);
+    return ResponseEntity.ok().eTag(ETags.of(device)).body(toResponse(device));
   }
 
-  @Operation(summary = "Fetch all devices (optionally filter by brand and/or state)")
+  @Operation(summary = "Fetch all devices, optionally filtered by brands, states and a createdAt "
+      + "range (from inclusive, to exclusive) and sorted by createdAt or name; archived devices "
+      + "only with includeArchived=true")
   @GetMapping
+  // A created range can be as wide as the table, so only brand and state make a call cheaper
+  @RequestCost(value = 5, unfiltered = 50, filters = {"brand", "state"})
   public ResponseEntity<List<DeviceResponse>> getAll(
-      @RequestParam(required = false) String brand,
-      @RequestParam(required = false) DeviceState state
+      @RequestParam(required = false) List<String> brand,
+      @RequestParam(required = false) List<DeviceState> state,
+      @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) Instant createdFrom,
+      @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) Instant createdTo,
+      @RequestParam(defaultValue = "createdAt") String sort,
+      @RequestParam(defaultValue = "false") boolean includeArchived
+  ) {
+    DeviceFilter filter = toFilter(brand, state, createdFrom, createdTo, sort, includeArchived);
+    var result = service.getDevices(filter).stream().map(DeviceMapper::toResponse).toList();
+    return ResponseEntity.ok(result);
+  }
+
+  @Operation(summary = "Fetch selected fields of all devices, e.g. fields=id,state; takes the "
+      + "same brand, state, createdAt range, sort and includeArchived parameters as the full "
+      + "list")
+  @GetMapping(params = "fields")
+  @RequestCost(value = 3, unfiltered = 30, filters = {"brand", "state"})
+  public ResponseEntity<List<DeviceViewResponse>> getAllFields(
+      @RequestParam(required = false) List<String> brand,
+      @RequestParam(required = false) List<DeviceState> state,
+      @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) Instant createdFrom,
+      @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) Instant createdTo,
+      @RequestParam(defaultValue = "createdAt") String sort,
+      @RequestParam(defaultValue = "false") boolean includeArchived,
+      @RequestParam String fields
   ) {
-    var result = service.getDevices(brand, state).stream().map(DeviceMapper::toResponse).toList();
+    Set<DeviceField> selected = parseFields(fields);
+    DeviceFilter filter = toFilter(brand, state, createdFrom, createdTo, sort,
+        includeArchived);
+    var result = service.getDeviceViews(filter, selected).stream()
+        .map(view -> DeviceMapper.toViewResponse(view, selected))
+        .toList();
     return ResponseEntity.ok(result);
   }
 
+  @Operation(summary = "Fetch devices page by page using an opaque continuation cursor")
+  @GetMapping("/page")
+  @RequestCost(2)
+  public ResponseEntity<DevicePageResponse> getPage(
+      @RequestParam(required = false) String brand,
+      @RequestParam(required = false) DeviceState state,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "50") int limit
+  ) {
+    DevicePage page = service.getDevicePage(brand, state, DeviceCursor.decode(cursor), limit);
+    var items = page.items().stream().map(DeviceMapper::toResponse).toList();
+    String next = page.next() != null ? page.next().encode() : null;
+    return ResponseEntity.ok(new DevicePageResponse(items, next));
+  }
+
+  @Operation(summary = "Fetch selected fields of devices page by page, e.g. fields=id,state")
+  @GetMapping(value = "/page", params = "fields")
+  @RequestCost(2)
+  public ResponseEntity<DeviceViewPageResponse> getPageFields(
+      @RequestParam(required = false) String brand,
+      @RequestParam(required = false) DeviceState state,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "50") int limit,
+      @RequestParam String fields
+  ) {
+    Set<DeviceField> selected = parseFields(fields);
+    DeviceViewPage page = service.getDeviceViewPage(brand, state, selected,
+        DeviceCursor.decode(cursor), limit);
+    var items = page.items().stream()
+        .map(view -> DeviceMapper.toViewResponse(view, selected))
+        .toList();
+    String next = page.next() != null ? page.next().encode() : null;
+    return ResponseEntity.ok(new DeviceViewPageResponse(items, next));
+  }
+
+  @Operation(summary = "Search devices by name and brand prefixes, best match first, "
+      + "e.g. q=MacBook Pro 14")
+  @GetMapping("/search")
+  @RequestCost(5)
+  public ResponseEntity<DevicePageResponse> search(
+      @RequestParam String q,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "20") int limit
+  ) {
+    DeviceSearchPage page = service.search(q, SearchCursor.decode(cursor), limit);
+    var items = page.items().stream().map(DeviceMapper::toResponse).toList();
+    String next = page.next() != null ? page.next().encode() : null;
+    return ResponseEntity.ok(new DevicePageResponse(items, next));
+  }
+
+  @Operation(summary = "Stream all devices as NDJSON, or as a CBOR sequence when "
+      + "Accept: application/cbor-seq (optionally filter by brand and/or state)")
+  @GetMapping(value = "/export",
+      produces = {MediaType.APPLICATION_NDJSON_VALUE, APPLICATION_CBOR_SEQ_VALUE})
+  @RequestCost(value = 20, unfiltered = 100, filters = {"brand", "state"})
+  public ResponseEntity<StreamingResponseBody> export(
+      @RequestParam(required = false) String brand,
+      @RequestParam(required = false) DeviceState state,
+      @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept
+  ) {
+    // The body is written on an async worker thread, which doesn't see the request's routing
+    boolean primary = ReadRouting.isPrimaryRequired();
+    // One handler for both formats; NDJSON unless CBOR is explicitly preferred
+    if (prefersCborSeq(accept)) {
+      ObjectMapper cbor = cborConverter.getObjectMapper();
+      StreamingResponseBody body = out -> writeSequence(out, cbor, false, brand, state, primary);
+      return ResponseEntity.ok().contentType(APPLICATION_CBOR_SEQ).body(body);
+    }
+    StreamingResponseBody body =
+        out -> writeSequence(out, objectMapper, true, brand, state, primary);
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+  }
+
+  @Operation(summary = "Replace an existing device (honours If-Match)")
   @PutMapping("/{id}")
   public ResponseEntity<DeviceResponse> update(@PathVariable UUID id,
-      @Valid @RequestBody UpdateDeviceRequest request) {
-    return ResponseEntity.ok(toResponse(service.update(id, request)));
+      @Valid @RequestBody UpdateDeviceRequest request,
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    Device updated = service.update(id, request, ETags.parseIfMatch(ifMatch));
+    return ResponseEntity.ok().eTag(ETags.of(updated)).body(toResponse(updated));
   }
 
-  @Operation(summary = "Partially update an existing device")
+  @Operation(summary = "Partially update an existing device (honours If-Match)")
   @PatchMapping("/{id}")
   public ResponseEntity<DeviceResponse> patch(@PathVariable UUID id,
-      @Valid @RequestBody PatchDeviceRequest request) {
-    return ResponseEntity.ok(toResponse(service.patch(id, request)));
+      @Valid @RequestBody PatchDeviceRequest request,
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    Device patched = service.patch(id, request, ETags.parseIfMatch(ifMatch));
+    return ResponseEntity.ok().eTag(ETags.of(patched)).body(toResponse(patched));
   }
 
-  @Operation(summary = "Delete a single device by id")
+  @Operation(summary = "Delete a single device by id (honours If-Match)")
   @DeleteMapping("/{id}")
-  public ResponseEntity<Void> delete(@PathVariable UUID id) {
-    service.delete(id);
+  public ResponseEntity<Void> delete(@PathVariable UUID id,
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    service.delete(id, ETags.parseIfMatch(ifMatch));
     return ResponseEntity.noContent().build();
   }
 
+  private static DeviceFilter toFilter(List<String> brand, List<DeviceState> state,
+      Instant createdFrom, Instant createdTo, String sort, boolean includeArchived) {
+    if (createdFrom != null && createdTo != null && !createdFrom.isBefore(createdTo)) {
+      throw new InvalidParameterException("createdTo", "createdTo must be after createdFrom.");
+    }
+    DeviceSort order = DeviceSort.fromParameter(sort).orElseThrow(() ->
+        new InvalidParameterException("sort", "Unknown sort '%s'.".formatted(sort)));
+    return new DeviceFilter(brand != null ? new HashSet<>(brand) : null,
+        state != null ? new HashSet<>(state) : null, createdFrom, createdTo, order,
+        includeArchived);
+  }
+
+  private static Set<DeviceField> parseFields(String fields) {
+    Set<DeviceField> selected = EnumSet.noneOf(DeviceField.class);
+    for (String name : fields.split(",")) {
+      String property = name.strip();
+      if (!property.isEmpty()) {
+        selected.add(DeviceField.fromProperty(property).orElseThrow(() ->
+            new InvalidParameterException("fields", "Unknown field '%s'.".formatted(property))));
+      }
+    }
+    if (selected.isEmpty()) {
+      throw new InvalidParameterException("fields", "At least one field must be selected.");
+    }
+    return selected;
+  }
+
+  private static boolean prefersCborSeq(String accept) {
+    if (accept == null) {
+      return false;
+    }
+    List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+    MimeTypeUtils.sortBySpecificity(accepted);
+    for (MediaType type : accepted) {
+      if (type.equalsTypeAndSubtype(APPLICATION_CBOR_SEQ)) {
+        return true;
+      }
+      if (type.includes(MediaType.APPLICATION_NDJSON)) {
+        return false;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Writes one root value per device: newline-delimited for NDJSON, back to back for a CBOR
+   * sequence (RFC 8742), which is self-delimiting.
+   */
+  private void writeSequence(OutputStream out, ObjectMapper mapper, boolean newlineDelimited,
+      String brand, DeviceState state, boolean primary) throws IOException {
+    // One generator for the whole response; flushing is left to its buffer, not every row
+    ObjectWriter writer = mapper.writerFor(DeviceResponse.class)
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    // JSON rows skip the DTO and go straight to the generator (same bytes, far less garbage);
+    // the binary format keeps the DTO path for its compact encodings
+    DeviceJsonWriter direct = newlineDelimited ? new DeviceJsonWriter() : null;
+    try (JsonGenerator gen = mapper.getFactory().createGenerator(out)) {
+      if (newlineDelimited) {
+        gen.setRootValueSeparator(null);
+      }
+      ReadRouting.runWith(primary, () -> service.exportDevices(brand, state, device -> {
+        try {
+          if (direct != null) {
+            direct.write(gen, device);
+            gen.writeRaw('\n');
+          } else {
+            writer.writeValue(gen, toResponse(device));
+          }
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }));
+    }
+  }
+
 }
@@ -0,0 +1,34 @@
+package org.assessment.devicemanagement.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.assessment.devicemanagement.model.DeviceState;
+import org.assessment.devicemanagement.sse.DeviceStateEventStream;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@Tag(name = "Devices API", description = "Endpoints for managing device resources")
+@RestController
+@RequestMapping("/v1/devices")
+@RequiredArgsConstructor
+@Validated
+public class DeviceEventController {
+
+  private final DeviceStateEventStream stream;
+
+  @Operation(summary = "Stream device state transitions as Server-Sent Events "
+      + "(optionally filter by brand and/or state)")
+  @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter events(
+      @RequestParam(required = false) String brand,
+      @RequestParam(required = false) DeviceState state
+  ) {
+    return stream.subscribe(brand, state);
+  }
+}
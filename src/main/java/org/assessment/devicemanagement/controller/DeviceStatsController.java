@@ -0,0 +1,29 @@
+package org.assessment.devicemanagement.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.assessment.devicemanagement.dto.DeviceStatsResponse;
+import org.assessment.devicemanagement.model.DeviceStats;
+import org.assessment.devicemanagement.stats.DeviceStatsCounters;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Tag(name = "Devices API", description = "Endpoints for managing device resources")
+@RestController
+@RequestMapping("/v1/devices")
+@RequiredArgsConstructor
+public class DeviceStatsController {
+
+  private final DeviceStatsCounters counters;
+
+  @Operation(summary = "Device counts per brand and state (served from in-memory counters)")
+  @GetMapping("/stats")
+  public ResponseEntity<DeviceStatsResponse> stats() {
+    DeviceStats stats = counters.snapshot();
+    return ResponseEntity.ok(new DeviceStatsResponse(stats.total(), stats.byState(),
+        stats.byBrand(), stats.reconciledAt()));
+  }
+}
@@ -0,0 +1,126 @@
+package org.assessment.devicemanagement.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Admits at most {@code permits} concurrent connection checkouts and queues the rest in FIFO order
+ * on a fair semaphore. With virtual threads thousands of requests can reach the repository at once;
+ * parking them here is cheap, whereas letting them all spin on Hikari's handoff queue is not. The
+ * permit is held until the connection is closed.
+ *
+ * <p>Time spent queueing is published as {@code devices.db.admission.wait}; the number of
+ * queued callers as {@code devices.db.admission.queued}.
+ */
+public class AdmissionControlledDataSource extends DelegatingDataSource implements MeterBinder {
+
+  private final Semaphore permits;
+  private final int maxPermits;
+  private final long acquireTimeoutNanos;
+  private volatile Timer waitTimer;
+
+  public AdmissionControlledDataSource(DataSource target, int permits, Duration acquireTimeout) {
+    super(target);
+    this.permits = new Semaphore(permits, true);
+    this.maxPermits = permits;
+    this.acquireTimeoutNanos = acquireTimeout.toNanos();
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    acquire();
+    return admitted(() -> super.getConnection());
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    acquire();
+    return admitted(() -> super.getConnection(username, password));
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    waitTimer = Timer.builder("devices.db.admission.wait")
+        .description("Time spent waiting for a database connection permit")
+        .publishPercentileHistogram()
+        .register(registry);
+    Gauge.builder("devices.db.admission.queued", permits, Semaphore::getQueueLength)
+        .description("Callers waiting for a database connection permit")
+        .register(registry);
+    Gauge.builder("devices.db.admission.active", this, ds -> ds.maxPermits - ds.permits.availablePermits())
+        .description("Database connection permits currently held")
+        .register(registry);
+  }
+
+  private void acquire() throws SQLException {
+    long start = System.nanoTime();
+    boolean admitted;
+    try {
+      admitted = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLTransientConnectionException("Interrupted while waiting for a connection", e);
+    } finally {
+      Timer timer = waitTimer;
+      if (timer != null) {
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      }
+    }
+    if (!admitted) {
+      throw new SQLTransientConnectionException("Connection not available, request timed out after "
+          + TimeUnit.NANOSECONDS.toMillis(acquireTimeoutNanos) + "ms waiting for admission");
+    }
+  }
+
+  private Connection admitted(ConnectionSupplier supplier) throws SQLException {
+    Connection connection;
+    try {
+      connection = supplier.get();
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+    return releasingOnClose(connection);
+  }
+
+  private Connection releasingOnClose(Connection target) {
+    AtomicBoolean released = new AtomicBoolean();
+    return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+        new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+          if (method.getName().equals("close") && method.getParameterCount() == 0) {
+            try {
+              target.close();
+            } finally {
+              if (released.compareAndSet(false, true)) {
+                permits.release();
+              }
+            }
+            return null;
+          }
+          try {
+            return method.invoke(target, args);
+          } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+          }
+        });
+  }
+
+  @FunctionalInterface
+  private interface ConnectionSupplier {
+
+    Connection get() throws SQLException;
+  }
+}
@@ -0,0 +1,61 @@
+package org.assessment.devicemanagement.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread override that keeps read-only transactions on the primary. Set for requests of a
+ * client that wrote recently (read-your-writes) and for reads whose result outlives the request,
+ * such as cache fills, where replica lag would otherwise be kept around.
+ */
+public final class ReadRouting {
+
+  private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+  private ReadRouting() {
+  }
+
+  public static boolean isPrimaryRequired() {
+    return PRIMARY_REQUIRED.get() != null;
+  }
+
+  public static <T> T onPrimary(Supplier<T> action) {
+    boolean previous = requirePrimary();
+    try {
+      return action.get();
+    } finally {
+      restore(previous);
+    }
+  }
+
+  /**
+   * Runs {@code action} with a setting captured on another thread by {@link #isPrimaryRequired()},
+   * for work handed off by a request, such as a streamed response body.
+   */
+  public static void runWith(boolean primaryRequired, Runnable action) {
+    if (!primaryRequired) {
+      action.run();
+      return;
+    }
+    boolean previous = requirePrimary();
+    try {
+      action.run();
+    } finally {
+      restore(previous);
+    }
+  }
+
+  /**
+   * Returns the previous setting, to be handed back to {@link #restore(boolean)}.
+   */
+  static boolean requirePrimary() {
+    boolean previous = isPrimaryRequired();
+    PRIMARY_REQUIRED.set(Boolean.TRUE);
+    return previous;
+  }
+
+  static void restore(boolean previous) {
+    if (!previous) {
+      PRIMARY_REQUIRED.remove();
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package org.assessment.devicemanagement.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Read-your-writes for replica routing: a write request hands the client a cookie holding the
+ * time until which its reads stay on the primary, long enough for replicas to catch up with
+ * that write. The deadline is set by this server, so client clocks don't matter.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+  public static final String COOKIE = "devices-primary-until";
+  private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+  private final Duration stickiness;
+
+  public ReadYourWritesFilter(Duration stickiness) {
+    this.stickiness = stickiness;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain chain) throws ServletException, IOException {
+    long now = System.currentTimeMillis();
+    boolean write = !SAFE_METHODS.contains(request.getMethod());
+    if (write) {
+      Cookie cookie = new Cookie(COOKIE, Long.toString(now + stickiness.toMillis()));
+      cookie.setPath("/");
+      cookie.setHttpOnly(true);
+      cookie.setMaxAge((int) Math.max(1, stickiness.toSeconds()));
+      response.addCookie(cookie);
+    }
+    if (!write && !stickyUntilAfter(request, now)) {
+      chain.doFilter(request, response);
+      return;
+    }
+    boolean previous = ReadRouting.requirePrimary();
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      ReadRouting.restore(previous);
+    }
+  }
+
+  private static boolean stickyUntilAfter(HttpServletRequest request, long now) {
+    Cookie[] cookies = request.getCookies();
+    if (cookies == null) {
+      return false;
+    }
+    for (Cookie cookie : cookies) {
+      if (COOKIE.equals(cookie.getName())) {
+        try {
+          return Long.parseLong(cookie.getValue()) > now;
+        } catch (NumberFormatException e) {
+          return false;
+        }
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,140 @@
+package org.assessment.devicemanagement.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Read replicas with their replication lag, measured periodically on each of them. Connections
+ * are handed out round-robin from the replicas whose lag is within {@code maxLag}; a replica
+ * that cannot be reached counts as unknown lag until the next successful check.
+ *
+ * <p>A server that is not in recovery reports no lag, so a standalone Postgres (as in local
+ * tests) can stand in for a replica.
+ */
+@Slf4j
+public class ReplicaPool implements MeterBinder, AutoCloseable {
+
+  // Replay timestamps stop moving while the primary is idle, so a replica that has replayed
+  // everything it received counts as caught up rather than as ever more behind
+  private static final String LAG_QUERY = """
+      SELECT CASE
+        WHEN NOT pg_is_in_recovery() THEN 0
+        WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+        ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+      END""";
+
+  private final List<Replica> replicas;
+  private final double maxLagSeconds;
+  private final AtomicInteger next = new AtomicInteger();
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+      Thread.ofPlatform().name("device-replica-lag").daemon().factory());
+  private volatile Counter fallbacks;
+
+  public ReplicaPool(Map<String, DataSource> replicas, Duration maxLag) {
+    this.replicas = replicas.entrySet().stream()
+        .map(e -> new Replica(e.getKey(), e.getValue()))
+        .toList();
+    this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+  }
+
+  /**
+   * Measures every replica once, so routing starts with known lag, then keeps re-measuring.
+   */
+  public void start(Duration checkInterval) {
+    checkLag();
+    long interval = checkInterval.toMillis();
+    scheduler.scheduleWithFixedDelay(this::checkLag, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * A connection to the next replica within the lag limit, or {@code null} when there is none
+   * and the caller should use the primary.
+   */
+  Connection getConnection() {
+    int size = replicas.size();
+    int first = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+    for (int i = 0; i < size; i++) {
+      Replica replica = replicas.get((first + i) % size);
+      if (!(replica.lagSeconds <= maxLagSeconds)) {
+        continue;
+      }
+      try {
+        return replica.dataSource.getConnection();
+      } catch (SQLException e) {
+        log.warn("Replica {} unavailable, skipping it until the next lag check", replica.name, e);
+        replica.lagSeconds = Double.NaN;
+      }
+    }
+    Counter counter = fallbacks;
+    if (counter != null) {
+      counter.increment();
+    }
+    return null;
+  }
+
+  void checkLag() {
+    for (Replica replica : replicas) {
+      try (Connection connection = replica.dataSource.getConnection();
+          Statement statement = connection.createStatement();
+          ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+        rs.next();
+        replica.lagSeconds = rs.getDouble(1);
+      } catch (SQLException e) {
+        log.warn("Lag check failed on replica {}", replica.name, e);
+        replica.lagSeconds = Double.NaN;
+      }
+    }
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    for (Replica replica : replicas) {
+      Gauge.builder("devices.db.replica.lag", replica, r -> r.lagSeconds)
+          .description("Replication lag last measured on the replica (NaN when unreachable)")
+          .baseUnit("seconds")
+          .tag("replica", replica.name)
+          .register(registry);
+    }
+    fallbacks = Counter.builder("devices.db.replica.fallbacks")
+        .description("Read-only transactions sent to the primary because no replica was usable")
+        .register(registry);
+  }
+
+  @Override
+  public void close() throws Exception {
+    scheduler.shutdownNow();
+    for (Replica replica : replicas) {
+      if (replica.dataSource instanceof AutoCloseable closeable) {
+        closeable.close();
+      }
+    }
+  }
+
+  private static final class Replica {
+
+    final String name;
+    final DataSource dataSource;
+    // NaN (unknown) fails every comparison, so such a replica is never chosen
+    volatile double lagSeconds = Double.NaN;
+
+    Replica(String name, DataSource dataSource) {
+      this.name = name;
+      this.dataSource = dataSource;
+    }
+  }
+}
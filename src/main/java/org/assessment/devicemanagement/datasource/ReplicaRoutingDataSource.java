@@ -0,0 +1,36 @@
+package org.assessment.devicemanagement.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Serves read-only transactions from a {@link ReplicaPool} and everything else from the
+ * primary. The read-only flag is only known once the transaction has started, so this must sit
+ * behind a {@code LazyConnectionDataSourceProxy}, which defers the checkout to the first
+ * statement. Falls back to the primary when no replica is within the lag limit or
+ * {@link ReadRouting} requires it.
+ */
+public class ReplicaRoutingDataSource extends DelegatingDataSource {
+
+  private final ReplicaPool replicas;
+
+  public ReplicaRoutingDataSource(DataSource primary, ReplicaPool replicas) {
+    super(primary);
+    this.replicas = replicas;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+        && !ReadRouting.isPrimaryRequired()) {
+      Connection replica = replicas.getConnection();
+      if (replica != null) {
+        return replica;
+      }
+    }
+    return super.getConnection();
+  }
+}
@@ -0,0 +1,33 @@
+package org.assessment.devicemanagement.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Any combination of creates, patches and deletes; each list is applied in order and capped at
+ * {@value #MAX_ITEMS_PER_OPERATION} items.
+ */
+public record BatchDeviceRequest(
+    @Size(max = MAX_ITEMS_PER_OPERATION) List<@NotNull @Valid CreateDeviceRequest> create,
+    @Size(max = MAX_ITEMS_PER_OPERATION) List<@NotNull @Valid DevicePatchItem> patch,
+    @Size(max = MAX_ITEMS_PER_OPERATION) List<@NotNull UUID> delete
+) {
+
+  public static final int MAX_ITEMS_PER_OPERATION = 5000;
+
+  public BatchDeviceRequest {
+    create = create == null ? List.of() : create;
+    patch = patch == null ? List.of() : patch;
+    delete = delete == null ? List.of() : delete;
+  }
+
+  @AssertTrue(message = "At least one operation must be provided")
+  public boolean isAnyOperationPresent() {
+    return !create.isEmpty() || !patch.isEmpty() || !delete.isEmpty();
+  }
+
+}
@@ -0,0 +1,9 @@
+package org.assessment.devicemanagement.dto;
+
+import java.util.List;
+
+public record BatchDeviceResponse(int succeeded,
+                                  int failed,
+                                  List<BatchItemResult> results) {
+
+}
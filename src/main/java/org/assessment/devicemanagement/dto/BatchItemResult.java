@@ -0,0 +1,16 @@
+package org.assessment.devicemanagement.dto;
+
+import org.assessment.devicemanagement.model.BatchItemOutcome.Operation;
+
+/**
+ * Result of one batch item. {@code index} points into the request list of the same operation;
+ * {@code device} is only present for successful creates and patches.
+ */
+public record BatchItemResult(Operation operation,
+                              int index,
+                              String id,
+                              int status,
+                              String error,
+                              DeviceResponse device) {
+
+}
@@ -0,0 +1,23 @@
+package org.assessment.devicemanagement.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.Instant;
+import org.assessment.devicemanagement.event.DeviceChangeType;
+import org.assessment.devicemanagement.model.DeviceState;
+
+/**
+ * Device fields are omitted for {@code DELETED} changes.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record DeviceChangeResponse(
+    long seq,
+    DeviceChangeType type,
+    String id,
+    String name,
+    String brand,
+    DeviceState state,
+    Long version,
+    Instant changedAt
+) {
+
+}
@@ -0,0 +1,11 @@
+package org.assessment.devicemanagement.dto;
+
+import java.util.List;
+
+/**
+ * @param nextSince value to pass as {@code since} on the next request; unchanged when the
+ *                  request timed out without changes
+ */
+public record DeviceChangesResponse(List<DeviceChangeResponse> changes, String nextSince) {
+
+}
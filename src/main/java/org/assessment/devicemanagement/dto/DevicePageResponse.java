@@ -0,0 +1,8 @@
+package org.assessment.devicemanagement.dto;
+
+import java.util.List;
+
+public record DevicePageResponse(List<DeviceResponse> items,
+                                 String nextCursor) {
+
+}
@@ -0,0 +1,12 @@
+package org.assessment.devicemanagement.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import java.util.UUID;
+
+public record DevicePatchItem(
+    @NotNull UUID id,
+    @NotNull @Valid PatchDeviceRequest changes
+) {
+
+}
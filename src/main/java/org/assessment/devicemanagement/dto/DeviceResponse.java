@@ -7,6 +7,7 @@ public record DeviceResponse(String id,
                              String name,
                              String brand,
                              DeviceState state,
-                             Instant createdAt) {
+                             Instant createdAt,
+                             long version) {
 
 }
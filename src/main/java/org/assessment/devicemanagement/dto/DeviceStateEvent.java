@@ -0,0 +1,16 @@
+package org.assessment.devicemanagement.dto;
+
+import java.time.Instant;
+import org.assessment.devicemanagement.model.DeviceState;
+
+public record DeviceStateEvent(
+    String id,
+    String name,
+    String brand,
+    DeviceState from,
+    DeviceState to,
+    long version,
+    Instant at
+) {
+
+}
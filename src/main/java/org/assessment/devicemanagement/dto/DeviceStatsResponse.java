@@ -0,0 +1,17 @@
+package org.assessment.devicemanagement.dto;
+
+import java.time.Instant;
+import java.util.Map;
+import org.assessment.devicemanagement.model.DeviceState;
+
+/**
+ * @param byBrand counts per lower-cased brand, then per state
+ */
+public record DeviceStatsResponse(
+    long total,
+    Map<DeviceState, Long> byState,
+    Map<String, Map<DeviceState, Long>> byBrand,
+    Instant reconciledAt
+) {
+
+}
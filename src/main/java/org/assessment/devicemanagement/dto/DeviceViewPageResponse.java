@@ -0,0 +1,8 @@
+package org.assessment.devicemanagement.dto;
+
+import java.util.List;
+
+public record DeviceViewPageResponse(List<DeviceViewResponse> items,
+                                     String nextCursor) {
+
+}
@@ -0,0 +1,20 @@
+package org.assessment.devicemanagement.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.Instant;
+import org.assessment.devicemanagement.model.DeviceState;
+
+/**
+ * Sparse {@link DeviceResponse}: only the fields requested through {@code fields=} are present.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record DeviceViewResponse(
+    String id,
+    String name,
+    String brand,
+    DeviceState state,
+    Instant createdAt,
+    Long version
+) {
+
+}
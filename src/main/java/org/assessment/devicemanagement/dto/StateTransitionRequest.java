@@ -0,0 +1,36 @@
+package org.assessment.devicemanagement.dto;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import java.time.Instant;
+import org.assessment.devicemanagement.model.DeviceState;
+
+/**
+ * Moves every device matching the filter to {@code targetState}. {@code brand} matches
+ * case-insensitively, {@code state} is the current state, {@code createdFrom} is inclusive and
+ * {@code createdTo} exclusive. At least a brand or a current state is required, so a request
+ * cannot flip the whole fleet by accident; a given brand must not be blank.
+ */
+public record StateTransitionRequest(
+    String brand,
+    DeviceState state,
+    Instant createdFrom,
+    Instant createdTo,
+    @NotNull DeviceState targetState
+) {
+
+  @AssertTrue(message = "brand or state must be provided")
+  public boolean isFiltered() {
+    return brand != null || state != null;
+  }
+
+  @AssertTrue(message = "brand must not be blank")
+  public boolean isBrandValid() {
+    return brand == null || !brand.isBlank();
+  }
+
+  @AssertTrue(message = "createdTo must be after createdFrom")
+  public boolean isRangeValid() {
+    return createdFrom == null || createdTo == null || createdFrom.isBefore(createdTo);
+  }
+}
@@ -0,0 +1,8 @@
+package org.assessment.devicemanagement.dto;
+
+/**
+ * @param updated devices moved to the target state
+ */
+public record StateTransitionResponse(long updated) {
+
+}
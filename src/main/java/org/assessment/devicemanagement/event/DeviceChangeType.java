@@ -0,0 +1,7 @@
+package org.assessment.devicemanagement.event;
+
+public enum DeviceChangeType {
+  CREATED,
+  UPDATED,
+  DELETED
+}
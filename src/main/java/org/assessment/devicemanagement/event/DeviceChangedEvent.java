@@ -0,0 +1,43 @@
+package org.assessment.devicemanagement.event;
+
+import java.util.UUID;
+import org.assessment.devicemanagement.model.Device;
+
+/**
+ * Published inside the writing transaction for every device mutation. Listeners that must only
+ * see committed state use {@code @TransactionalEventListener(phase = AFTER_COMMIT)}.
+ *
+ * @param device   the device after the change; {@code null} for deletions
+ * @param previous the device before the change, when the writer knows it; {@code null} for
+ *                 creations
+ */
+public record DeviceChangedEvent(DeviceChangeType type, UUID deviceId, DeviceSnapshot device,
+                                 DeviceSnapshot previous) {
+
+  public DeviceChangedEvent(DeviceChangeType type, UUID deviceId) {
+    this(type, deviceId, null, null);
+  }
+
+  public static DeviceChangedEvent created(Device device) {
+    return new DeviceChangedEvent(DeviceChangeType.CREATED, device.getId(),
+        DeviceSnapshot.of(device), null);
+  }
+
+  public static DeviceChangedEvent updated(DeviceSnapshot previous, Device device) {
+    return new DeviceChangedEvent(DeviceChangeType.UPDATED, device.getId(),
+        DeviceSnapshot.of(device), previous);
+  }
+
+  public static DeviceChangedEvent deleted(UUID id, Device previous) {
+    return new DeviceChangedEvent(DeviceChangeType.DELETED, id, null,
+        DeviceSnapshot.of(previous));
+  }
+
+  /**
+   * True for updates that moved the device to a different state.
+   */
+  public boolean isStateTransition() {
+    return type == DeviceChangeType.UPDATED && previous != null && device != null
+        && previous.state() != device.state();
+  }
+}
@@ -0,0 +1,19 @@
+package org.assessment.devicemanagement.event;
+
+import java.time.Instant;
+import java.util.UUID;
+import org.assessment.devicemanagement.model.Device;
+import org.assessment.devicemanagement.model.DeviceState;
+
+/**
+ * Immutable copy of a device as it was when an event was published; safe to hand to listeners
+ * that outlive the persistence context.
+ */
+public record DeviceSnapshot(UUID id, String name, String brand, DeviceState state,
+                             Instant createdAt, long version) {
+
+  public static DeviceSnapshot of(Device device) {
+    return new DeviceSnapshot(device.getId(), device.getName(), device.getBrand(),
+        device.getState(), device.getCreatedAt(), device.getVersion());
+  }
+}
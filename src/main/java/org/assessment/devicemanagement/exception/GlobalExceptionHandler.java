@@ -1,10 +1,14 @@
 package org.assessment.devicemanagement.exception;
 
 import java.net.URI;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.ErrorResponseException;
@@ -15,6 +19,9 @@ import org.springframework.web.method.annotation.MethodArgumentTypeMismatchExcep
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
+
+  private static final Duration CONCURRENT_WRITE_RETRY_AFTER = Duration.ofSeconds(1);
+
   @ExceptionHandler(NotFoundException.class)
   public ProblemDetail handleNotFound(NotFoundException ex) {
     ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.NOT_FOUND);
@@ -37,6 +44,66 @@ public class GlobalExceptionHandler {
     return pd;
   }
 
+  @ExceptionHandler(PreconditionFailedException.class)
+  public ProblemDetail handlePreconditionFailed(PreconditionFailedException ex) {
+    // If-Match named a version that is no longer current
+    ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.PRECONDITION_FAILED);
+    pd.setTitle("Precondition failed");
+    pd.setDetail(ex.getMessage());
+    pd.setType(URI.create("about:blank"));
+    pd.setProperty("timestamp", Instant.now());
+    pd.setProperty("errorCode", "PRECONDITION_FAILED");
+    return pd;
+  }
+
+  @ExceptionHandler(IdempotencyKeyReusedException.class)
+  public ProblemDetail handleIdempotencyKeyReused(IdempotencyKeyReusedException ex) {
+    // same Idempotency-Key, different request body: neither replayed nor executed
+    ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.UNPROCESSABLE_ENTITY);
+    pd.setTitle("Idempotency key reused");
+    pd.setDetail(ex.getMessage());
+    pd.setType(URI.create("about:blank"));
+    pd.setProperty("timestamp", Instant.now());
+    pd.setProperty("errorCode", "IDEMPOTENCY_KEY_REUSED");
+    return pd;
+  }
+
+  @ExceptionHandler(RateLimitedException.class)
+  public ResponseEntity<ProblemDetail> handleRateLimited(RateLimitedException ex) {
+    ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.TOO_MANY_REQUESTS);
+    pd.setTitle("Too many requests");
+    pd.setDetail(ex.getMessage());
+    pd.setType(URI.create("about:blank"));
+    pd.setProperty("timestamp", Instant.now());
+    pd.setProperty("errorCode", "RATE_LIMITED");
+    return withRetryAfter(pd, ex.getRetryAfter());
+  }
+
+  @ExceptionHandler(OverloadedException.class)
+  public ResponseEntity<ProblemDetail> handleOverloaded(OverloadedException ex) {
+    // shed before reaching the database; safe to retry
+    ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.SERVICE_UNAVAILABLE);
+    pd.setTitle("Service overloaded");
+    pd.setDetail(ex.getMessage());
+    pd.setType(URI.create("about:blank"));
+    pd.setProperty("timestamp", Instant.now());
+    pd.setProperty("errorCode", "OVERLOADED");
+    return withRetryAfter(pd, ex.getRetryAfter());
+  }
+
+  @ExceptionHandler(PessimisticLockingFailureException.class)
+  public ResponseEntity<ProblemDetail> handleLockingFailure(PessimisticLockingFailureException ex) {
+    // e.g. Postgres 40001 when archiving moved the row to another partition while this write
+    // waited for it; the statement was rolled back, so repeating the request is safe
+    ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.SERVICE_UNAVAILABLE);
+    pd.setTitle("Concurrent write");
+    pd.setDetail("The device was changed concurrently; retry the request.");
+    pd.setType(URI.create("about:blank"));
+    pd.setProperty("timestamp", Instant.now());
+    pd.setProperty("errorCode", "CONCURRENT_WRITE");
+    return withRetryAfter(pd, CONCURRENT_WRITE_RETRY_AFTER);
+  }
+
   @ExceptionHandler(MethodArgumentNotValidException.class)
   public ProblemDetail handleBeanValidation(MethodArgumentNotValidException ex) {
     ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.BAD_REQUEST);
@@ -78,12 +145,33 @@ public class GlobalExceptionHandler {
     return pd;
   }
 
+  @ExceptionHandler(InvalidParameterException.class)
+  public ProblemDetail handleInvalidParameter(InvalidParameterException ex) {
+    // covers query parameters validated by the application (cursors etc.)
+    ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.BAD_REQUEST);
+    pd.setTitle("Invalid parameter");
+    pd.setDetail(ex.getMessage());
+    pd.setType(URI.create("about:blank"));
+    pd.setProperty("timestamp", Instant.now());
+    pd.setProperty("errorCode", "INVALID_PARAMETER");
+    return pd;
+  }
+
   @ExceptionHandler(ErrorResponseException.class)
   public ProblemDetail handleSpringErrorResponse(ErrorResponseException ex) {
     // fallback for other Spring-generated ProblemDetail exceptions
     return ex.getBody();
   }
 
+  // Retry-After takes whole seconds; round up so clients never come back too early
+  private static ResponseEntity<ProblemDetail> withRetryAfter(ProblemDetail pd,
+      Duration retryAfter) {
+    long seconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+    return ResponseEntity.status(pd.getStatus())
+        .header(HttpHeaders.RETRY_AFTER, Long.toString(seconds))
+        .body(pd);
+  }
+
   private ValidationError toValidationError(FieldError fe) {
     return new ValidationError(fe.getField(), fe.getDefaultMessage());
   }
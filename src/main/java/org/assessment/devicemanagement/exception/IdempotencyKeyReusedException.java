@@ -0,0 +1,8 @@
+package org.assessment.devicemanagement.exception;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+  public IdempotencyKeyReusedException(String key) {
+    super("Idempotency-Key '%s' was already used with a different request.".formatted(key));
+  }
+}
@@ -0,0 +1,19 @@
+package org.assessment.devicemanagement.exception;
+
+public class InvalidParameterException extends RuntimeException {
+
+  private final String parameter;
+
+  public InvalidParameterException(String parameter) {
+    this(parameter, "Parameter '%s' has an invalid value.".formatted(parameter));
+  }
+
+  public InvalidParameterException(String parameter, String message) {
+    super(message);
+    this.parameter = parameter;
+  }
+
+  public String getParameter() {
+    return parameter;
+  }
+}
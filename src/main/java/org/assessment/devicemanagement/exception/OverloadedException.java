@@ -0,0 +1,16 @@
+package org.assessment.devicemanagement.exception;
+
+import java.time.Duration;
+import lombok.Getter;
+
+// The request was shed because the database is saturated
+@Getter
+public class OverloadedException extends RuntimeException {
+
+  private final Duration retryAfter;
+
+  public OverloadedException(Duration retryAfter) {
+    super("The service is overloaded.");
+    this.retryAfter = retryAfter;
+  }
+}
@@ -0,0 +1,8 @@
+package org.assessment.devicemanagement.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+
+  public PreconditionFailedException(String message) {
+    super(message);
+  }
+}
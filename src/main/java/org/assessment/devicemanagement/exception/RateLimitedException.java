@@ -0,0 +1,16 @@
+package org.assessment.devicemanagement.exception;
+
+import java.time.Duration;
+import lombok.Getter;
+
+// The client used up its request budget; retryAfter is when enough tokens are back
+@Getter
+public class RateLimitedException extends RuntimeException {
+
+  private final Duration retryAfter;
+
+  public RateLimitedException(Duration retryAfter) {
+    super("Request rate limit exceeded.");
+    this.retryAfter = retryAfter;
+  }
+}
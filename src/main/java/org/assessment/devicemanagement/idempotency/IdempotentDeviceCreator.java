@@ -0,0 +1,203 @@
+package org.assessment.devicemanagement.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.assessment.devicemanagement.config.IdempotencyProperties;
+import org.assessment.devicemanagement.dto.CreateDeviceRequest;
+import org.assessment.devicemanagement.dto.DeviceResponse;
+import org.assessment.devicemanagement.exception.IdempotencyKeyReusedException;
+import org.assessment.devicemanagement.exception.InvalidParameterException;
+import org.assessment.devicemanagement.repository.IdempotencyKeyRepository;
+import org.assessment.devicemanagement.service.DeviceService;
+import org.assessment.devicemanagement.util.DeviceMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * {@code POST /v1/devices} with an {@code Idempotency-Key}: the first request creates the device
+ * and stores its response under the key in the same transaction; retries get that response back
+ * without another insert. Reusing a key for a different request body is rejected. Keys belong
+ * to the client that sent them, so clients picking the same key don't see each other's devices.
+ *
+ * <p>Duplicates racing on one instance wait for the first request in memory; across instances
+ * they wait on the key's row lock. Completed keys are also kept in memory, so most retries never
+ * reach the database.
+ */
+@Slf4j
+@Service
+public class IdempotentDeviceCreator {
+
+  public static final int MAX_KEY_LENGTH = 255;
+
+  public record Result(DeviceResponse response, boolean replayed) {
+
+  }
+
+  private record Completed(String requestHash, DeviceResponse response) {
+
+  }
+
+  private record Claim(Completed result, boolean created) {
+
+  }
+
+  private record ClientKey(String clientId, String key) {
+
+  }
+
+  private final DeviceService devices;
+  private final IdempotencyKeyRepository keys;
+  private final TransactionTemplate transactionTemplate;
+  private final ObjectMapper objectMapper;
+  private final IdempotencyProperties properties;
+  private final Cache<ClientKey, Completed> completed;
+  private final ConcurrentMap<ClientKey, CompletableFuture<Completed>> inFlight =
+      new ConcurrentHashMap<>();
+  private final ScheduledExecutorService cleaner = Executors.newSingleThreadScheduledExecutor(
+      Thread.ofPlatform().name("device-idempotency-cleanup").daemon().factory());
+
+  public IdempotentDeviceCreator(DeviceService devices, IdempotencyKeyRepository keys,
+      TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+      IdempotencyProperties properties) {
+    this.devices = devices;
+    this.keys = keys;
+    this.transactionTemplate = transactionTemplate;
+    this.objectMapper = objectMapper;
+    this.properties = properties;
+    this.completed = Caffeine.newBuilder()
+        .maximumSize(properties.cacheSize())
+        .expireAfterWrite(properties.ttl())
+        .build();
+  }
+
+  @PostConstruct
+  void start() {
+    long interval = properties.cleanupInterval().toMillis();
+    cleaner.scheduleWithFixedDelay(this::deleteExpired, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  void stop() {
+    cleaner.shutdownNow();
+  }
+
+  public Result create(String clientId, String key, CreateDeviceRequest request) {
+    if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+      throw new InvalidParameterException("Idempotency-Key",
+          "Idempotency-Key must be 1 to %d characters.".formatted(MAX_KEY_LENGTH));
+    }
+    ClientKey clientKey = new ClientKey(clientId, key);
+    String requestHash = hash(request);
+    while (true) {
+      Completed done = completed.getIfPresent(clientKey);
+      if (done != null) {
+        return replay(key, done, requestHash);
+      }
+      CompletableFuture<Completed> mine = new CompletableFuture<>();
+      CompletableFuture<Completed> first = inFlight.putIfAbsent(clientKey, mine);
+      if (first != null) {
+        try {
+          return replay(key, first.join(), requestHash);
+        } catch (CompletionException e) {
+          // The first attempt failed without storing anything; make our own
+          continue;
+        }
+      }
+      try {
+        Optional<Claim> claim = transactionTemplate.execute(
+            status -> claimAndCreate(clientKey, requestHash, request));
+        if (claim.isPresent()) {
+          // Shared only after the commit, so waiters never see a response that was rolled back
+          completed.put(clientKey, claim.get().result());
+          mine.complete(claim.get().result());
+          return claim.get().created()
+              ? new Result(claim.get().result().response(), false)
+              : replay(key, claim.get().result(), requestHash);
+        }
+        // Expired and deleted between the claim and the read; waiters retry as we do
+        mine.completeExceptionally(new IllegalStateException("Idempotency key expired"));
+      } catch (RuntimeException e) {
+        mine.completeExceptionally(e);
+        throw e;
+      } finally {
+        inFlight.remove(clientKey, mine);
+      }
+    }
+  }
+
+  private Optional<Claim> claimAndCreate(ClientKey clientKey, String requestHash,
+      CreateDeviceRequest request) {
+    String clientId = clientKey.clientId();
+    String key = clientKey.key();
+    Instant expiredBefore = Instant.now().minus(properties.ttl());
+    if (!keys.claim(clientId, key, requestHash, expiredBefore)) {
+      return keys.find(clientId, key).map(stored -> new Claim(
+          new Completed(stored.requestHash(), deserialize(stored.response())), false));
+    }
+    DeviceResponse response = DeviceMapper.toResponse(devices.create(request));
+    keys.complete(clientId, key, UUID.fromString(response.id()), serialize(response));
+    return Optional.of(new Claim(new Completed(requestHash, response), true));
+  }
+
+  private static Result replay(String key, Completed previous, String requestHash) {
+    if (!previous.requestHash().equals(requestHash)) {
+      throw new IdempotencyKeyReusedException(key);
+    }
+    return new Result(previous.response(), true);
+  }
+
+  void deleteExpired() {
+    try {
+      int deleted = keys.deleteCreatedBefore(Instant.now().minus(properties.ttl()));
+      log.debug("Deleted {} expired idempotency keys", deleted);
+    } catch (RuntimeException e) {
+      log.warn("Deleting expired idempotency keys failed", e);
+    }
+  }
+
+  // NUL-separated so that e.g. ("ab", "c") and ("a", "bc") hash differently
+  private static String hash(CreateDeviceRequest request) {
+    String canonical = request.name() + '\0' + request.brand() + '\0' + request.state();
+    try {
+      MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(sha256.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private String serialize(DeviceResponse response) {
+    try {
+      return objectMapper.writeValueAsString(response);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private DeviceResponse deserialize(String response) {
+    try {
+      return objectMapper.readValue(response, DeviceResponse.class);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package org.assessment.devicemanagement.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumMap;
+import java.util.Map;
+import org.assessment.devicemanagement.model.DeviceFilter;
+import org.assessment.devicemanagement.model.DeviceState;
+import org.springframework.stereotype.Component;
+
+/**
+ * Device-specific meters. Service call latency is recorded by {@code @Timed} as
+ * {@value #SERVICE_TIMER}; this class adds {@value #QUERY_ROWS}, the number of rows returned per
+ * query kind and filter combination. Histogram and SLO buckets for both are configured under
+ * {@code management.metrics.distribution} in {@code application.yml}.
+ */
+@Component
+public class DeviceMetrics {
+
+  public static final String SERVICE_TIMER = "devices.service";
+  public static final String QUERY_ROWS = "devices.query.rows";
+
+  public enum Query {
+    LIST, PAGE, EXPORT, SEARCH
+  }
+
+  enum Filter {
+    NONE, BRAND, STATE, BRAND_STATE;
+
+    static Filter of(String brand, DeviceState state) {
+      if (brand != null) {
+        return state != null ? BRAND_STATE : BRAND;
+      }
+      return state != null ? STATE : NONE;
+    }
+
+    static Filter of(DeviceFilter filter) {
+      if (!filter.brands().isEmpty()) {
+        return filter.states().isEmpty() ? BRAND : BRAND_STATE;
+      }
+      return filter.states().isEmpty() ? NONE : STATE;
+    }
+  }
+
+  private final Map<Query, Map<Filter, DistributionSummary>> rows = new EnumMap<>(Query.class);
+
+  public DeviceMetrics(MeterRegistry registry) {
+    // Registered up front so the hot path is two enum lookups
+    for (Query query : Query.values()) {
+      Map<Filter, DistributionSummary> byFilter = new EnumMap<>(Filter.class);
+      for (Filter filter : Filter.values()) {
+        byFilter.put(filter, DistributionSummary.builder(QUERY_ROWS)
+            .description("Rows returned by device queries")
+            .baseUnit("rows")
+            .tag("query", query.name().toLowerCase())
+            .tag("filter", filter.name().toLowerCase())
+            .register(registry));
+      }
+      rows.put(query, byFilter);
+    }
+  }
+
+  public void recordRows(Query query, String brand, DeviceState state, long count) {
+    rows.get(query).get(Filter.of(brand, state)).record(count);
+  }
+
+  public void recordRows(Query query, DeviceFilter filter, long count) {
+    rows.get(query).get(Filter.of(filter)).record(count);
+  }
+}
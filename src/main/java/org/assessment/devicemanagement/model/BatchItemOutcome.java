@@ -0,0 +1,43 @@
+package org.assessment.devicemanagement.model;
+
+import java.util.UUID;
+
+/**
+ * What happened to a single item of a batch request.
+ */
+public record BatchItemOutcome(Operation operation,
+                               int index,
+                               UUID id,
+                               Status status,
+                               String message,
+                               Device device) {
+
+  public enum Operation {
+    CREATE,
+    PATCH,
+    DELETE
+  }
+
+  public enum Status {
+    CREATED,
+    UPDATED,
+    DELETED,
+    NOT_FOUND,
+    CONFLICT,
+    FAILED;
+
+    public boolean isSuccess() {
+      return this == CREATED || this == UPDATED || this == DELETED;
+    }
+  }
+
+  public static BatchItemOutcome success(Operation operation, int index, Status status,
+      Device device) {
+    return new BatchItemOutcome(operation, index, device.getId(), status, null, device);
+  }
+
+  public static BatchItemOutcome failure(Operation operation, int index, UUID id, Status status,
+      String message) {
+    return new BatchItemOutcome(operation, index, id, status, message, null);
+  }
+}
@@ -2,6 +2,7 @@ package org.assessment.devicemanagement.model;
 
 import jakarta.persistence.*;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.UUID;
 import lombok.AccessLevel;
 import lombok.Getter;
@@ -28,6 +29,11 @@ public class Device {
   @Column(nullable = false)
   private String brand;
 
+  // Maintained by Postgres as lower(brand); backs the case-insensitive brand indexes
+  @Setter(AccessLevel.NONE)
+  @Column(name = "brand_normalized", insertable = false, updatable = false)
+  private String brandNormalized;
+
   @Setter
   @Enumerated(EnumType.STRING)
   @Column(nullable = false)
@@ -37,9 +43,26 @@ public class Device {
   @Column(name = "created_at", nullable = false, updatable = false)
   private Instant createdAt;
 
+  // Bumped on every write (by Hibernate or the conditional UPDATE); surfaced as the ETag
+  @Version
+  @Setter(AccessLevel.NONE)
+  @Column(nullable = false)
+  private long version;
+
+  // Set by DeviceArchiver (the row then lives in devices_archived); any write un-archives
+  @Setter(AccessLevel.NONE)
+  @Column(nullable = false)
+  private boolean archived;
+
   @PrePersist
   void prePersist() {
-    if (createdAt == null) createdAt = Instant.now();
+    // Postgres keeps microseconds; truncating keeps the entity equal to the stored row
+    if (createdAt == null) createdAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+  }
+
+  @PreUpdate
+  void preUpdate() {
+    archived = false;
   }
 
 }
@@ -0,0 +1,20 @@
+package org.assessment.devicemanagement.model;
+
+import java.time.Instant;
+import java.util.UUID;
+import org.assessment.devicemanagement.event.DeviceChangeType;
+import org.assessment.devicemanagement.util.ChangeCursor;
+
+/**
+ * One entry of the device change log. Name, brand, state and version describe the device after
+ * the change and are {@code null} for deletions.
+ */
+public record DeviceChange(long txId, long seq, UUID deviceId, DeviceChangeType type,
+                           String name, String brand, DeviceState state, Long version,
+                           Instant changedAt) {
+
+  public ChangeCursor cursor() {
+    return new ChangeCursor(txId, seq);
+  }
+
+}
@@ -0,0 +1,31 @@
+package org.assessment.devicemanagement.model;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Device attributes selectable through {@code fields=}; {@link #property()} is both the entity
+ * attribute and the JSON property name.
+ */
+public enum DeviceField {
+  ID("id"),
+  NAME("name"),
+  BRAND("brand"),
+  STATE("state"),
+  CREATED_AT("createdAt"),
+  VERSION("version");
+
+  private final String property;
+
+  DeviceField(String property) {
+    this.property = property;
+  }
+
+  public String property() {
+    return property;
+  }
+
+  public static Optional<DeviceField> fromProperty(String property) {
+    return Arrays.stream(values()).filter(f -> f.property.equals(property)).findFirst();
+  }
+}
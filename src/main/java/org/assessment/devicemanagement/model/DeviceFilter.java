@@ -0,0 +1,28 @@
+package org.assessment.devicemanagement.model;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Criteria for listing devices. Values within {@code brands} (case-insensitive) and
+ * {@code states} are alternatives; the criteria themselves are combined with AND. Empty sets
+ * and null bounds match everything; {@code createdFrom} is inclusive, {@code createdTo}
+ * exclusive. Archived devices (see {@code DeviceArchiver}) only match with
+ * {@code includeArchived}.
+ */
+public record DeviceFilter(Set<String> brands, Set<DeviceState> states, Instant createdFrom,
+                           Instant createdTo, DeviceSort sort, boolean includeArchived) {
+
+  public static final DeviceFilter ALL = new DeviceFilter(null, null, null, null, null, false);
+
+  public DeviceFilter {
+    brands = brands != null ? Set.copyOf(brands) : Set.of();
+    states = states != null ? Set.copyOf(states) : Set.of();
+    sort = sort != null ? sort : DeviceSort.CREATED_AT;
+  }
+
+  public static DeviceFilter of(String brand, DeviceState state) {
+    return new DeviceFilter(brand != null ? Set.of(brand) : null,
+        state != null ? Set.of(state) : null, null, null, null, false);
+  }
+}
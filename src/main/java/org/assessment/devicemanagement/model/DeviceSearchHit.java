@@ -0,0 +1,8 @@
+package org.assessment.devicemanagement.model;
+
+/**
+ * A search match with its {@code ts_rank}; the rank is only needed to build the next cursor.
+ */
+public record DeviceSearchHit(Device device, float rank) {
+
+}
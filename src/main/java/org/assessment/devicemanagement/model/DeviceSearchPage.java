@@ -0,0 +1,11 @@
+package org.assessment.devicemanagement.model;
+
+import java.util.List;
+import org.assessment.devicemanagement.util.SearchCursor;
+
+/**
+ * One page of search results, best match first. {@code next} is {@code null} on the last page.
+ */
+public record DeviceSearchPage(List<Device> items, SearchCursor next) {
+
+}
@@ -0,0 +1,43 @@
+package org.assessment.devicemanagement.model;
+
+import java.util.Optional;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+
+/**
+ * Orderings offered by the list endpoint, as written in {@code sort=} ({@code -} for
+ * descending). The id breaks ties so the order is total.
+ */
+public enum DeviceSort {
+  CREATED_AT("createdAt", Direction.ASC),
+  CREATED_AT_DESC("-createdAt", Direction.DESC),
+  NAME("name", Direction.ASC),
+  NAME_DESC("-name", Direction.DESC);
+
+  private final String parameter;
+  private final Direction direction;
+
+  DeviceSort(String parameter, Direction direction) {
+    this.parameter = parameter;
+    this.direction = direction;
+  }
+
+  public String parameter() {
+    return parameter;
+  }
+
+  // Both keys in one direction, so a (column, id) index can be walked either way
+  public Sort toSort() {
+    String property = parameter.startsWith("-") ? parameter.substring(1) : parameter;
+    return Sort.by(direction, property, "id");
+  }
+
+  public static Optional<DeviceSort> fromParameter(String parameter) {
+    for (DeviceSort sort : values()) {
+      if (sort.parameter.equals(parameter)) {
+        return Optional.of(sort);
+      }
+    }
+    return Optional.empty();
+  }
+}
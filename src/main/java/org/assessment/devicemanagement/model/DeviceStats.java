@@ -0,0 +1,15 @@
+package org.assessment.devicemanagement.model;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Device counts per (normalized) brand and state.
+ *
+ * @param reconciledAt when the counters were last replaced from the database; {@code null}
+ *                     until the first reconciliation has run
+ */
+public record DeviceStats(long total, Map<String, Map<DeviceState, Long>> byBrand,
+                          Map<DeviceState, Long> byState, Instant reconciledAt) {
+
+}
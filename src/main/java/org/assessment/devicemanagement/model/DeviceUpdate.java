@@ -0,0 +1,10 @@
+package org.assessment.devicemanagement.model;
+
+import org.assessment.devicemanagement.event.DeviceSnapshot;
+
+/**
+ * Result of a conditional update: the device as written and as it was just before.
+ */
+public record DeviceUpdate(Device device, DeviceSnapshot previous) {
+
+}
@@ -0,0 +1,13 @@
+package org.assessment.devicemanagement.model;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Partial, unmanaged device read by a projection query. Attributes that were not selected are
+ * {@code null}.
+ */
+public record DeviceView(UUID id, String name, String brand, DeviceState state, Instant createdAt,
+                         Long version) {
+
+}
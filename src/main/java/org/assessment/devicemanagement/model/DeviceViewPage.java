@@ -0,0 +1,11 @@
+package org.assessment.devicemanagement.model;
+
+import java.util.List;
+import org.assessment.devicemanagement.util.DeviceCursor;
+
+/**
+ * One keyset page of device projections. {@code next} is {@code null} on the last page.
+ */
+public record DeviceViewPage(List<DeviceView> items, DeviceCursor next) {
+
+}
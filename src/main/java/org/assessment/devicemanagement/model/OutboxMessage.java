@@ -0,0 +1,14 @@
+package org.assessment.devicemanagement.model;
+
+import java.time.Instant;
+import java.util.UUID;
+import org.assessment.devicemanagement.event.DeviceChangeType;
+
+/**
+ * A device mutation waiting in the outbox. {@code payload} is the JSON document handed to the
+ * sink.
+ */
+public record OutboxMessage(long id, UUID deviceId, DeviceChangeType type, String payload,
+                            Instant createdAt) {
+
+}
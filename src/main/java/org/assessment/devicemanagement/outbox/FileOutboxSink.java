@@ -0,0 +1,43 @@
+package org.assessment.devicemanagement.outbox;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.assessment.devicemanagement.config.OutboxProperties;
+import org.assessment.devicemanagement.model.OutboxMessage;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Appends each message's payload as one line to {@code devices.outbox.file}. Meant for local
+ * runs; a batch is written with a single append.
+ */
+@Component
+@ConditionalOnProperty(prefix = "devices.outbox", name = "enabled", havingValue = "true")
+@ConditionalOnProperty(prefix = "devices.outbox", name = "sink", havingValue = "file",
+    matchIfMissing = true)
+public class FileOutboxSink implements OutboxSink {
+
+  private final OutboxProperties properties;
+
+  public FileOutboxSink(OutboxProperties properties) {
+    this.properties = properties;
+  }
+
+  @Override
+  public synchronized void publish(List<OutboxMessage> messages) {
+    StringBuilder lines = new StringBuilder(messages.size() * 256);
+    for (OutboxMessage message : messages) {
+      lines.append(message.payload()).append('\n');
+    }
+    try {
+      Files.writeString(properties.file(), lines, StandardCharsets.UTF_8,
+          StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package org.assessment.devicemanagement.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.assessment.devicemanagement.model.OutboxMessage;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps published messages in memory; for tests.
+ */
+@Component
+@ConditionalOnProperty(prefix = "devices.outbox", name = "enabled", havingValue = "true")
+@ConditionalOnProperty(prefix = "devices.outbox", name = "sink", havingValue = "memory")
+public class InMemoryOutboxSink implements OutboxSink {
+
+  private final List<OutboxMessage> published = new ArrayList<>();
+
+  @Override
+  public synchronized void publish(List<OutboxMessage> messages) {
+    published.addAll(messages);
+  }
+
+  public synchronized List<OutboxMessage> published() {
+    return List.copyOf(published);
+  }
+
+  public synchronized void clear() {
+    published.clear();
+  }
+}
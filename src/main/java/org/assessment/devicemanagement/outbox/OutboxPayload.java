@@ -0,0 +1,22 @@
+package org.assessment.devicemanagement.outbox;
+
+import java.time.Instant;
+import java.util.UUID;
+import org.assessment.devicemanagement.event.DeviceChangeType;
+import org.assessment.devicemanagement.event.DeviceChangedEvent;
+import org.assessment.devicemanagement.event.DeviceSnapshot;
+
+/**
+ * JSON document stored in {@code device_outbox.payload}.
+ *
+ * @param device   the device after the change; {@code null} for deletions
+ * @param previous the device before the change, when known
+ */
+record OutboxPayload(DeviceChangeType type, UUID deviceId, DeviceSnapshot device,
+                     DeviceSnapshot previous, Instant occurredAt) {
+
+  static OutboxPayload of(DeviceChangedEvent event, Instant occurredAt) {
+    return new OutboxPayload(event.type(), event.deviceId(), event.device(), event.previous(),
+        occurredAt);
+  }
+}
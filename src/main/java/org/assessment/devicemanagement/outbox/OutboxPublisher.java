@@ -0,0 +1,148 @@
+package org.assessment.devicemanagement.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.assessment.devicemanagement.config.OutboxProperties;
+import org.assessment.devicemanagement.model.OutboxMessage;
+import org.assessment.devicemanagement.repository.OutboxRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Drains {@code device_outbox} into the {@link OutboxSink}. Each of {@code devices.outbox.workers}
+ * threads repeatedly claims a batch with {@code FOR UPDATE SKIP LOCKED}, publishes it and deletes
+ * it in one transaction, until the outbox is empty; then it waits {@code poll-interval}. A failing
+ * sink rolls the batch back and the worker retries on its next poll.
+ *
+ * <p>Meters: {@code devices.outbox.published} (messages, i.e. throughput),
+ * {@code devices.outbox.lag} (write-to-publish delay per message),
+ * {@code devices.outbox.failures} (failed batches), and the backlog, sampled every
+ * {@code poll-interval}: {@code devices.outbox.pending} (messages) and
+ * {@code devices.outbox.oldest.age} (seconds the oldest pending message has waited). Lag only
+ * covers what was published; these two also show a publisher that is stuck.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "devices.outbox", name = "enabled", havingValue = "true")
+public class OutboxPublisher {
+
+  private final OutboxRepository outbox;
+  private final OutboxSink sink;
+  private final TransactionTemplate transactionTemplate;
+  private final OutboxProperties properties;
+  private final ScheduledExecutorService workers;
+  private final Counter published;
+  private final Counter failures;
+  private final Timer lag;
+  private volatile OutboxRepository.Backlog backlog = new OutboxRepository.Backlog(0, null);
+
+  public OutboxPublisher(OutboxRepository outbox, OutboxSink sink,
+      TransactionTemplate transactionTemplate, OutboxProperties properties,
+      MeterRegistry registry) {
+    this.outbox = outbox;
+    this.sink = sink;
+    this.transactionTemplate = transactionTemplate;
+    this.properties = properties;
+    this.workers = Executors.newScheduledThreadPool(Math.max(1, properties.workers()),
+        Thread.ofPlatform().name("device-outbox-", 0).daemon().factory());
+    this.published = Counter.builder("devices.outbox.published")
+        .description("Outbox messages handed to the sink")
+        .baseUnit("messages")
+        .register(registry);
+    this.failures = Counter.builder("devices.outbox.failures")
+        .description("Outbox batches the sink rejected")
+        .register(registry);
+    this.lag = Timer.builder("devices.outbox.lag")
+        .description("Delay between a device write and the publication of its message")
+        .register(registry);
+    Gauge.builder("devices.outbox.pending", this, publisher -> publisher.backlog.pending())
+        .description("Outbox messages not yet published")
+        .baseUnit("messages")
+        .register(registry);
+    Gauge.builder("devices.outbox.oldest.age", this, OutboxPublisher::oldestAgeSeconds)
+        .description("How long the oldest unpublished outbox message has waited")
+        .baseUnit("seconds")
+        .register(registry);
+  }
+
+  @PostConstruct
+  void start() {
+    long interval = properties.pollInterval().toMillis();
+    for (int i = 0; i < Math.max(1, properties.workers()); i++) {
+      workers.scheduleWithFixedDelay(this::drainQuietly, interval, interval,
+          TimeUnit.MILLISECONDS);
+    }
+    workers.scheduleWithFixedDelay(this::sampleBacklog, 0, interval, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  void stop() {
+    workers.shutdownNow();
+  }
+
+  /**
+   * Publishes batches until none is left (or all remaining rows are claimed by other workers)
+   * and returns how many messages this call published.
+   */
+  public int drain() {
+    int batchSize = Math.max(1, properties.batchSize());
+    int total = 0;
+    int count;
+    do {
+      count = publishBatch(batchSize);
+      total += count;
+    } while (count == batchSize && !Thread.currentThread().isInterrupted());
+    return total;
+  }
+
+  private int publishBatch(int batchSize) {
+    List<OutboxMessage> batch = transactionTemplate.execute(status -> {
+      List<OutboxMessage> claimed = outbox.claim(batchSize);
+      if (!claimed.isEmpty()) {
+        sink.publish(claimed);
+        outbox.delete(claimed);
+      }
+      return claimed;
+    });
+    Instant now = Instant.now();
+    for (OutboxMessage message : batch) {
+      lag.record(Duration.between(message.createdAt(), now));
+    }
+    published.increment(batch.size());
+    return batch.size();
+  }
+
+  void sampleBacklog() {
+    try {
+      backlog = outbox.backlog();
+    } catch (RuntimeException e) {
+      log.warn("Could not measure the outbox backlog", e);
+    }
+  }
+
+  private double oldestAgeSeconds() {
+    Instant oldest = backlog.oldest();
+    return oldest == null ? 0 : Duration.between(oldest, Instant.now()).toMillis() / 1000.0;
+  }
+
+  private void drainQuietly() {
+    try {
+      drain();
+    } catch (RuntimeException e) {
+      failures.increment();
+      log.warn("Publishing outbox messages failed; retrying in {}", properties.pollInterval(), e);
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package org.assessment.devicemanagement.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.assessment.devicemanagement.event.DeviceChangedEvent;
+import org.assessment.devicemanagement.repository.OutboxRepository;
+import org.assessment.devicemanagement.repository.OutboxRepository.Entry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Writes every {@link DeviceChangedEvent} to the outbox in the transaction that produced it, so a
+ * mutation and its message commit or roll back together. Like the change log, entries are
+ * buffered per transaction and inserted in one batch just before commit; the write itself never
+ * waits for the sink.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "devices.outbox", name = "enabled", havingValue = "true")
+public class OutboxRecorder {
+
+  private final OutboxRepository outbox;
+  private final ObjectMapper objectMapper;
+
+  @EventListener
+  public void onDeviceChanged(DeviceChangedEvent event) {
+    Entry entry = toEntry(event);
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      outbox.append(List.of(entry));
+      return;
+    }
+    PendingEntries pending = (PendingEntries) TransactionSynchronizationManager.getResource(this);
+    if (pending == null) {
+      pending = new PendingEntries();
+      TransactionSynchronizationManager.bindResource(this, pending);
+      TransactionSynchronizationManager.registerSynchronization(pending);
+    }
+    pending.entries.add(entry);
+  }
+
+  private Entry toEntry(DeviceChangedEvent event) {
+    try {
+      String payload = objectMapper.writeValueAsString(OutboxPayload.of(event, Instant.now()));
+      return new Entry(event.deviceId(), event.type(), payload);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private final class PendingEntries implements TransactionSynchronization {
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    @Override
+    public void beforeCommit(boolean readOnly) {
+      outbox.append(entries);
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+      TransactionSynchronizationManager.unbindResourceIfPossible(OutboxRecorder.this);
+    }
+  }
+}
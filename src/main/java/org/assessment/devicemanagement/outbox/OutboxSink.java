@@ -0,0 +1,19 @@
+package org.assessment.devicemanagement.outbox;
+
+import java.util.List;
+import org.assessment.devicemanagement.model.OutboxMessage;
+
+/**
+ * Destination of outbox messages (a broker, a webhook, a file). Delivery is at least once: a
+ * batch is deleted from the outbox only after {@link #publish} returns, so a crash in between
+ * delivers it again. Consumers de-duplicate by message id or discard events whose device
+ * {@code version} they have already seen; parallel workers do not guarantee order.
+ */
+public interface OutboxSink {
+
+  /**
+   * Delivers the messages, oldest first. Throwing leaves the whole batch in the outbox for the
+   * next attempt.
+   */
+  void publish(List<OutboxMessage> messages);
+}
@@ -0,0 +1,43 @@
+package org.assessment.devicemanagement.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.security.Principal;
+import java.util.Set;
+
+/**
+ * Who a request is attributed to, for per-client budgets and keys: the authenticated principal
+ * if there is one, else the remote address. The {@code header} is trusted only on requests that
+ * come straight from one of the {@code trustedProxies}; anyone else could set it to spread their
+ * load across made-up clients or to spend another client's budget.
+ */
+public class ClientIdentity {
+
+  private static final int MAX_CLIENT_ID_LENGTH = 128;
+
+  private final String header;
+  private final Set<String> trustedProxies;
+
+  public ClientIdentity(String header, Set<String> trustedProxies) {
+    this.header = header;
+    this.trustedProxies = Set.copyOf(trustedProxies);
+  }
+
+  public String of(HttpServletRequest request) {
+    Principal principal = request.getUserPrincipal();
+    if (principal != null) {
+      return truncate("user:" + principal.getName());
+    }
+    String remote = request.getRemoteAddr();
+    if (trustedProxies.contains(remote)) {
+      String id = request.getHeader(header);
+      if (id != null && !id.isBlank()) {
+        return truncate("client:" + id);
+      }
+    }
+    return "addr:" + remote;
+  }
+
+  private static String truncate(String id) {
+    return id.length() > MAX_CLIENT_ID_LENGTH ? id.substring(0, MAX_CLIENT_ID_LENGTH) : id;
+  }
+}
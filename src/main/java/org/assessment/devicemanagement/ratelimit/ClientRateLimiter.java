@@ -0,0 +1,63 @@
+package org.assessment.devicemanagement.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket per client, implemented as a generic cell rate algorithm: each client has one
+ * "theoretical arrival time" that a request pushes forward by {@code cost} emission intervals
+ * with a compare-and-set, so admission takes no lock and stores a single long per client.
+ * A client may run up to {@code capacity} tokens ahead of the refill rate.
+ *
+ * <p>Buckets of clients idle long enough to be full again are dropped; the number of tracked
+ * clients is bounded by {@code maxClients}.
+ */
+public class ClientRateLimiter {
+
+  private final long emissionIntervalNanos;
+  private final long burstNanos;
+  private final int capacity;
+  private final LongSupplier nanoClock;
+  private final Cache<String, AtomicLong> arrivals;
+
+  public ClientRateLimiter(int capacity, double refillPerSecond, long maxClients) {
+    this(capacity, refillPerSecond, maxClients, System::nanoTime);
+  }
+
+  ClientRateLimiter(int capacity, double refillPerSecond, long maxClients,
+      LongSupplier nanoClock) {
+    this.capacity = Math.max(1, capacity);
+    this.emissionIntervalNanos = Math.max(1L, (long) (1_000_000_000L / refillPerSecond));
+    this.burstNanos = emissionIntervalNanos * this.capacity;
+    this.nanoClock = nanoClock;
+    this.arrivals = Caffeine.newBuilder()
+        .maximumSize(maxClients)
+        .expireAfterAccess(Duration.ofNanos(Math.max(burstNanos, 1_000_000_000L)))
+        .build();
+  }
+
+  /**
+   * Takes {@code cost} tokens from the client's bucket. Returns zero when the request is
+   * admitted, otherwise how long until it would be (nothing is taken then). Costs above the
+   * capacity are charged as a full bucket.
+   */
+  public Duration tryAcquire(String client, int cost) {
+    AtomicLong arrival = arrivals.get(client, c -> new AtomicLong(Long.MIN_VALUE));
+    long increment = emissionIntervalNanos * Math.min(Math.max(cost, 1), capacity);
+    while (true) {
+      long now = nanoClock.getAsLong();
+      long current = arrival.get();
+      long next = Math.max(current, now) + increment;
+      long allowedAt = next - burstNanos;
+      if (allowedAt > now) {
+        return Duration.ofNanos(allowedAt - now);
+      }
+      if (arrival.compareAndSet(current, next)) {
+        return Duration.ZERO;
+      }
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package org.assessment.devicemanagement.ratelimit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sheds a growing share of rate-limited requests while the database is saturated. Every sample
+ * interval it computes the mean time callers waited for a connection since the previous sample
+ * ({@code hikaricp.connections.acquire} and, with admission control,
+ * {@code devices.db.admission.wait}). Above the threshold the shedding rate grows by
+ * {@code step}, up to {@code maxRate}; below it the rate decays by the same step, so shedding
+ * settles at the level the pool can sustain.
+ */
+@Slf4j
+public class LoadShedder implements AutoCloseable {
+
+  private static final List<String> WAIT_TIMERS =
+      List.of("hikaricp.connections.acquire", "devices.db.admission.wait");
+
+  private final MeterRegistry registry;
+  private final long thresholdNanos;
+  private final double step;
+  private final double maxRate;
+  private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(
+      Thread.ofPlatform().name("device-load-shedder").daemon().factory());
+  private long lastCount;
+  private double lastTotalNanos;
+  private volatile double rate;
+
+  public LoadShedder(MeterRegistry registry, Duration waitThreshold, double step,
+      double maxRate) {
+    this.registry = registry;
+    this.thresholdNanos = waitThreshold.toNanos();
+    this.step = step;
+    this.maxRate = maxRate;
+    Gauge.builder("devices.load.shedding.rate", this, LoadShedder::rate)
+        .description("Share of rate-limited requests currently rejected as overloaded")
+        .register(registry);
+  }
+
+  public void start(Duration sampleInterval) {
+    long interval = sampleInterval.toMillis();
+    sampler.scheduleWithFixedDelay(this::sampleQuietly, interval, interval,
+        TimeUnit.MILLISECONDS);
+  }
+
+  public double rate() {
+    return rate;
+  }
+
+  public boolean shouldShed() {
+    double current = rate;
+    return current > 0 && ThreadLocalRandom.current().nextDouble() < current;
+  }
+
+  // Only the sampler thread writes lastCount, lastTotalNanos and rate
+  void sample() {
+    long count = 0;
+    double totalNanos = 0;
+    for (String name : WAIT_TIMERS) {
+      for (Timer timer : registry.find(name).timers()) {
+        count += timer.count();
+        totalNanos += timer.totalTime(TimeUnit.NANOSECONDS);
+      }
+    }
+    long acquisitions = count - lastCount;
+    double meanWait = acquisitions > 0 ? (totalNanos - lastTotalNanos) / acquisitions : 0;
+    lastCount = count;
+    lastTotalNanos = totalNanos;
+
+    double previous = rate;
+    rate = meanWait > thresholdNanos
+        ? Math.min(maxRate, previous + step)
+        : Math.max(0, previous - step);
+    if (previous == 0 && rate > 0) {
+      log.warn("Connection wait {} ms above threshold; shedding load",
+          (long) (meanWait / 1_000_000));
+    }
+  }
+
+  private void sampleQuietly() {
+    try {
+      sample();
+    } catch (RuntimeException e) {
+      log.warn("Load shedding sample failed", e);
+    }
+  }
+
+  @Override
+  public void close() {
+    sampler.shutdownNow();
+  }
+}
@@ -0,0 +1,82 @@
+package org.assessment.devicemanagement.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import org.assessment.devicemanagement.exception.OverloadedException;
+import org.assessment.devicemanagement.exception.RateLimitedException;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Admits calls to {@link RequestCost} handlers: first load shedding (503), then the caller's
+ * token bucket (429). Both are thrown as exceptions so {@code GlobalExceptionHandler} renders them
+ * with {@code Retry-After}. Rejections are counted as {@code devices.requests.rejected} by reason
+ * and handler method. Either check may be absent (disabled).
+ *
+ * <p>Clients are told apart by {@link ClientIdentity}.
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+  private final ClientRateLimiter limiter;
+  private final LoadShedder shedder;
+  private final ClientIdentity clients;
+  private final Duration shedRetryAfter;
+  private final MeterRegistry registry;
+
+  public RateLimitInterceptor(ClientRateLimiter limiter, LoadShedder shedder,
+      ClientIdentity clients, Duration shedRetryAfter, MeterRegistry registry) {
+    this.limiter = limiter;
+    this.shedder = shedder;
+    this.clients = clients;
+    this.shedRetryAfter = shedRetryAfter;
+    this.registry = registry;
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+      Object handler) {
+    if (!(handler instanceof HandlerMethod method)) {
+      return true;
+    }
+    RequestCost cost = method.getMethodAnnotation(RequestCost.class);
+    if (cost == null) {
+      return true;
+    }
+    if (shedder != null && shedder.shouldShed()) {
+      rejected("overloaded", method).increment();
+      throw new OverloadedException(shedRetryAfter);
+    }
+    if (limiter != null) {
+      Duration wait = limiter.tryAcquire(clients.of(request), tokens(cost, request));
+      if (!wait.isZero()) {
+        rejected("rate_limited", method).increment();
+        throw new RateLimitedException(wait);
+      }
+    }
+    return true;
+  }
+
+  static int tokens(RequestCost cost, HttpServletRequest request) {
+    if (cost.unfiltered() < 0 || cost.filters().length == 0) {
+      return cost.value();
+    }
+    for (String filter : cost.filters()) {
+      if (request.getParameter(filter) != null) {
+        return cost.value();
+      }
+    }
+    return cost.unfiltered();
+  }
+
+  // Meters are cached by the registry, so this is a lookup after the first rejection
+  private Counter rejected(String reason, HandlerMethod method) {
+    return Counter.builder("devices.requests.rejected")
+        .description("Requests rejected by rate limiting or load shedding")
+        .tag("reason", reason)
+        .tag("endpoint", method.getMethod().getName())
+        .register(registry);
+  }
+}
@@ -0,0 +1,33 @@
+package org.assessment.devicemanagement.ratelimit;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a handler method as rate limited and load-shed by {@link RateLimitInterceptor}, and
+ * says how many tokens one call takes from the client's bucket. Unannotated handlers (the writes)
+ * are never limited.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RequestCost {
+
+  /**
+   * Tokens per call.
+   */
+  int value() default 1;
+
+  /**
+   * Tokens per call when none of {@link #filters()} is present, i.e. for full-table reads;
+   * {@code -1} means {@link #value()}.
+   */
+  int unfiltered() default -1;
+
+  /**
+   * Query parameters that reliably narrow the result; open-ended ones such as date ranges don't
+   * belong here, since a client could pass a range covering everything.
+   */
+  String[] filters() default {};
+}
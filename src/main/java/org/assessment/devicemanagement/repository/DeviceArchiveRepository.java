@@ -0,0 +1,36 @@
+package org.assessment.devicemanagement.repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Moves devices between the {@code devices_hot} and {@code devices_archived} partitions.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DeviceArchiveRepository {
+
+  private final JdbcTemplate jdbc;
+
+  /**
+   * Archives up to {@code limit} devices that have been INACTIVE since before {@code cutoff},
+   * oldest first, and returns how many were moved. Rows locked by a concurrent write are skipped
+   * rather than waited for; the next run picks them up if they are still eligible. The version is
+   * left alone, so archiving doesn't change a device's ETag.
+   */
+  public int archiveInactiveBefore(Instant cutoff, int limit) {
+    return jdbc.update("""
+            UPDATE devices SET archived = true
+            WHERE NOT archived AND state = 'INACTIVE'
+              AND id IN (
+                SELECT id FROM devices_hot
+                WHERE state = 'INACTIVE' AND state_changed_at < ?
+                ORDER BY state_changed_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED)
+            """, Timestamp.from(cutoff), limit);
+  }
+}
@@ -0,0 +1,118 @@
+package org.assessment.devicemanagement.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.assessment.devicemanagement.event.DeviceChangeType;
+import org.assessment.devicemanagement.event.DeviceChangedEvent;
+import org.assessment.devicemanagement.event.DeviceSnapshot;
+import org.assessment.devicemanagement.model.DeviceChange;
+import org.assessment.devicemanagement.model.DeviceState;
+import org.assessment.devicemanagement.util.ChangeCursor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * JDBC access to the {@code device_changes} log. Plain JDBC rather than JPA so appends can be
+ * batched (an IDENTITY key would force Hibernate to insert row by row).
+ *
+ * <p>Each row records the id of the transaction that wrote it ({@code tx_id}), and readers only
+ * see transactions below the visibility horizon, {@code pg_snapshot_xmin}: every transaction
+ * below it has finished, so a transaction that commits later always sorts after everything
+ * already read. Reads are in {@code (tx_id, seq)} order, which is start order, not commit order;
+ * concurrent transactions touching one device may appear out of order, so consumers keep the
+ * highest {@code version} per device. Writers don't wait for each other.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DeviceChangeRepository {
+
+  private final JdbcTemplate jdbc;
+
+  /**
+   * Appends the changes in the caller's transaction; {@code tx_id} defaults to its id.
+   */
+  public void append(List<DeviceChangedEvent> events) {
+    jdbc.batchUpdate("""
+            INSERT INTO device_changes (device_id, change_type, name, brand, state, version)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """,
+        events, events.size(), (ps, event) -> {
+          DeviceSnapshot device = event.device();
+          ps.setObject(1, event.deviceId());
+          ps.setString(2, event.type().name());
+          ps.setString(3, device != null ? device.name() : null);
+          ps.setString(4, device != null ? device.brand() : null);
+          ps.setString(5, device != null ? device.state().name() : null);
+          if (device != null) {
+            ps.setLong(6, device.version());
+          } else {
+            ps.setNull(6, Types.BIGINT);
+          }
+        });
+  }
+
+  public List<DeviceChange> findSince(ChangeCursor since, int limit) {
+    return jdbc.query("""
+            SELECT tx_id, seq, device_id, change_type, name, brand, state, version, changed_at
+            FROM device_changes
+            WHERE (tx_id, seq) > (?, ?)
+              AND tx_id < pg_snapshot_xmin(pg_current_snapshot())::text::bigint
+            ORDER BY tx_id, seq
+            LIMIT ?
+            """,
+        DeviceChangeRepository::mapRow, since.txId(), since.seq(), limit);
+  }
+
+  /**
+   * Position of the last change below the visibility horizon.
+   */
+  public ChangeCursor latest() {
+    List<ChangeCursor> latest = jdbc.query("""
+            SELECT tx_id, seq
+            FROM device_changes
+            WHERE tx_id < pg_snapshot_xmin(pg_current_snapshot())::text::bigint
+            ORDER BY tx_id DESC, seq DESC
+            LIMIT 1
+            """,
+        (rs, rowNum) -> new ChangeCursor(rs.getLong("tx_id"), rs.getLong("seq")));
+    return latest.isEmpty() ? ChangeCursor.START : latest.get(0);
+  }
+
+  /**
+   * Deletes up to {@code limit} of the oldest changes made before {@code cutoff}.
+   */
+  public int deleteBefore(Instant cutoff, int limit) {
+    return jdbc.update("""
+            DELETE FROM device_changes
+            WHERE seq IN (
+              SELECT seq FROM device_changes
+              WHERE changed_at < ?
+              ORDER BY changed_at
+              LIMIT ?
+            )
+            """,
+        Timestamp.from(cutoff), limit);
+  }
+
+  private static DeviceChange mapRow(ResultSet rs, int rowNum) throws SQLException {
+    String state = rs.getString("state");
+    Long version = rs.getObject("version", Long.class);
+    return new DeviceChange(
+        rs.getLong("tx_id"),
+        rs.getLong("seq"),
+        rs.getObject("device_id", UUID.class),
+        DeviceChangeType.valueOf(rs.getString("change_type")),
+        rs.getString("name"),
+        rs.getString("brand"),
+        state != null ? DeviceState.valueOf(state) : null,
+        version,
+        rs.getObject("changed_at", OffsetDateTime.class).toInstant());
+  }
+}
@@ -1,13 +1,137 @@
 package org.assessment.devicemanagement.repository;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 import org.assessment.devicemanagement.model.Device;
 import org.assessment.devicemanagement.model.DeviceState;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+// Filtered lists go through JpaSpecificationExecutor with DeviceSpecifications. Brand matching
+// goes through brand_normalized so the lower(brand) indexes are used.
+public interface DeviceRepository extends JpaRepository<Device, UUID>,
+    JpaSpecificationExecutor<Device>, DeviceRepositoryCustom {
+
+  String EXPORT_FETCH_SIZE = "500";
+
+  // Conditional writes: the IN_USE rules and the optional expected version are part of the WHERE
+  // clause, so the checks and the write are one atomic statement. An empty result means
+  // "missing or rejected"; callers tell the cases apart with findVersionById on that (rare) path.
+  // updateIfMutable lives in DeviceRepositoryImpl because it also returns the previous values.
+
+  @Query(value = """
+      DELETE FROM devices
+      WHERE id = :id
+        AND state <> 'IN_USE'
+        AND (CAST(:expectedVersion AS bigint) IS NULL
+             OR version = CAST(:expectedVersion AS bigint))
+      RETURNING *""", nativeQuery = true)
+  Optional<Device> deleteIfDeletable(UUID id, Long expectedVersion);
+
+  /** Batch counterpart of {@link #deleteIfDeletable}; returns the devices actually deleted. */
+  @Query(value = """
+      DELETE FROM devices
+      WHERE id IN (:ids)
+        AND state <> 'IN_USE'
+      RETURNING *""", nativeQuery = true)
+  List<Device> deleteAllDeletable(Collection<UUID> ids);
+
+  @Query("select d.version from Device d where d.id = :id")
+  Optional<Long> findVersionById(UUID id);
+
+  interface BrandStateCount {
+
+    String getBrand();
+
+    DeviceState getState();
+
+    long getCount();
+  }
+
+  // Served by an index-only scan of idx_devices_brand_normalized_state
+  @Query("""
+      select d.brandNormalized as brand, d.state as state, count(d) as count
+      from Device d
+      group by d.brandNormalized, d.state""")
+  List<BrandStateCount> countByBrandAndState();
+
+  // Keyset pages: rows strictly after (createdAt, id), in (created_at, id) order.
+  // The ">= createdAt" term lets Postgres start the index range scan at the cursor.
+
+  @Query(value = """
+      SELECT * FROM devices
+      WHERE created_at >= :createdAt AND (created_at > :createdAt OR id > :id)
+      ORDER BY created_at, id
+      LIMIT :limit""", nativeQuery = true)
+  List<Device> findPageAfter(Instant createdAt, UUID id, int limit);
+
+  @Query(value = """
+      SELECT * FROM devices
+      WHERE brand_normalized = lower(:brand)
+        AND created_at >= :createdAt AND (created_at > :createdAt OR id > :id)
+      ORDER BY created_at, id
+      LIMIT :limit""", nativeQuery = true)
+  List<Device> findPageByBrandAfter(String brand, Instant createdAt, UUID id, int limit);
+
+  @Query(value = """
+      SELECT * FROM devices
+      WHERE state = :state
+        AND created_at >= :createdAt AND (created_at > :createdAt OR id > :id)
+      ORDER BY created_at, id
+      LIMIT :limit""", nativeQuery = true)
+  List<Device> findPageByStateAfter(String state, Instant createdAt, UUID id, int limit);
+
+  @Query(value = """
+      SELECT * FROM devices
+      WHERE brand_normalized = lower(:brand) AND state = :state
+        AND created_at >= :createdAt AND (created_at > :createdAt OR id > :id)
+      ORDER BY created_at, id
+      LIMIT :limit""", nativeQuery = true)
+  List<Device> findPageByBrandAndStateAfter(String brand, String state, Instant createdAt, UUID id,
+      int limit);
+
+  // Export streams: rows are pulled from a server-side cursor EXPORT_FETCH_SIZE at a time.
+  // Callers must consume them inside a transaction and close the stream.
+
+  @QueryHints({
+      @QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+      @QueryHint(name = HINT_READ_ONLY, value = "true")
+  })
+  @Query("select d from Device d order by d.createdAt, d.id")
+  Stream<Device> streamAll();
+
+  @QueryHints({
+      @QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+      @QueryHint(name = HINT_READ_ONLY, value = "true")
+  })
+  @Query("select d from Device d where d.brandNormalized = lower(:brand)"
+      + " order by d.createdAt, d.id")
+  Stream<Device> streamByBrand(String brand);
+
+  @QueryHints({
+      @QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+      @QueryHint(name = HINT_READ_ONLY, value = "true")
+  })
+  @Query("select d from Device d where d.state = :state order by d.createdAt, d.id")
+  Stream<Device> streamByState(DeviceState state);
 
-public interface DeviceRepository extends JpaRepository<Device, UUID> {
-  List<Device> findByBrandIgnoreCase(String brand);
-  List<Device> findByState(DeviceState state);
-  List<Device> findByBrandIgnoreCaseAndState(String brand, DeviceState state);
+  @QueryHints({
+      @QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+      @QueryHint(name = HINT_READ_ONLY, value = "true")
+  })
+  @Query("""
+      select d from Device d
+      where d.brandNormalized = lower(:brand) and d.state = :state
+      order by d.createdAt, d.id""")
+  Stream<Device> streamByBrandAndState(String brand, DeviceState state);
 }
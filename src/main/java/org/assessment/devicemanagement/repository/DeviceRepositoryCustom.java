@@ -0,0 +1,52 @@
+package org.assessment.devicemanagement.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import org.assessment.devicemanagement.model.DeviceField;
+import org.assessment.devicemanagement.model.DeviceFilter;
+import org.assessment.devicemanagement.model.DeviceSearchHit;
+import org.assessment.devicemanagement.model.DeviceUpdate;
+import org.assessment.devicemanagement.model.DeviceView;
+
+public interface DeviceRepositoryCustom {
+
+  /**
+   * Applies the non-null fields; PUT passes all of them. Rejected when the device is IN_USE and
+   * the name or brand would change, or when {@code expectedVersion} is set and stale.
+   */
+  Optional<DeviceUpdate> updateIfMutable(UUID id, String name, String brand, String state,
+      Long expectedVersion);
+
+  /**
+   * Moves up to {@code limit} devices matching the (nullable) criteria, and not already in
+   * {@code targetState}, to {@code targetState} in one statement, returning each with its
+   * previous values. A state change is allowed for IN_USE devices too (only name and brand are
+   * locked), exactly as for a PATCH of {@code state}. Devices are taken in id order after
+   * {@code afterId} (null for the first chunk); call again with the largest returned id until
+   * fewer than {@code limit} rows come back.
+   */
+  List<DeviceUpdate> transitionStates(String brand, String currentState, Instant createdFrom,
+      Instant createdTo, String targetState, UUID afterId, int limit);
+
+  /**
+   * Selects only {@code fields} of the devices matching {@code filter}, in the filter's sort
+   * order. No entities are materialized, so nothing enters the persistence context. With a
+   * non-null {@code afterCreatedAt}/{@code afterId} (createdAt sort only) only rows after that
+   * keyset position are returned; {@code limit} may be {@code null} for all rows.
+   */
+  List<DeviceView> findViews(Set<DeviceField> fields, DeviceFilter filter,
+      Instant afterCreatedAt, UUID afterId, Integer limit);
+
+  /**
+   * Full-text search in {@code (rank desc, id)} order. {@code tsQuery} is a {@code to_tsquery}
+   * expression over the name and brand terms. At most {@code maxCandidates} matches, taken in
+   * no particular order, are ranked and paged, so very broad queries get an approximate top-N
+   * at bounded cost. With a non-null
+   * {@code afterRank}/{@code afterId} only hits after that position are returned.
+   */
+  List<DeviceSearchHit> search(String tsQuery, Float afterRank, UUID afterId, int limit,
+      int maxCandidates);
+}
@@ -0,0 +1,234 @@
+package org.assessment.devicemanagement.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.assessment.devicemanagement.event.DeviceSnapshot;
+import org.assessment.devicemanagement.model.Device;
+import org.assessment.devicemanagement.model.DeviceField;
+import org.assessment.devicemanagement.model.DeviceFilter;
+import org.assessment.devicemanagement.model.DeviceSearchHit;
+import org.assessment.devicemanagement.model.DeviceState;
+import org.assessment.devicemanagement.model.DeviceUpdate;
+import org.assessment.devicemanagement.model.DeviceView;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+@RequiredArgsConstructor
+class DeviceRepositoryImpl implements DeviceRepositoryCustom {
+
+  // The CTE locks the row and keeps its pre-update values, which RETURNING can't otherwise see.
+  // Under concurrent writers both halves re-read the latest committed row, so "previous" is
+  // always the version this statement replaced. Writes un-archive (archived = false moves an
+  // archived row back to devices_hot).
+  private static final String UPDATE_IF_MUTABLE = """
+      WITH previous AS (
+        SELECT id, name, brand, state, version FROM devices WHERE id = :id FOR UPDATE
+      )
+      UPDATE devices d
+      SET name = COALESCE(CAST(:name AS varchar), d.name),
+          brand = COALESCE(CAST(:brand AS varchar), d.brand),
+          state = COALESCE(CAST(:state AS varchar), d.state),
+          version = d.version + 1,
+          archived = false
+      FROM previous p
+      WHERE d.id = p.id
+        AND (CAST(:expectedVersion AS bigint) IS NULL
+             OR d.version = CAST(:expectedVersion AS bigint))
+        AND (d.state <> 'IN_USE'
+             OR ((CAST(:name AS varchar) IS NULL OR d.name = CAST(:name AS varchar))
+                 AND (CAST(:brand AS varchar) IS NULL OR d.brand = CAST(:brand AS varchar))))
+      RETURNING d.*, p.name AS previous_name, p.brand AS previous_brand,
+                p.state AS previous_state, p.version AS previous_version""";
+
+  // Set-based counterpart of UPDATE_IF_MUTABLE for state-only changes: the CTE picks and locks a
+  // chunk and keeps the pre-update values. Chunks walk the primary key in id order, starting
+  // after the last id of the previous chunk (:afterId), so each call only reads past that point
+  // instead of re-scanning and re-sorting everything that is left. Locking in id order also makes
+  // overlapping transitions wait for each other instead of deadlocking.
+  private static final String TRANSITION_STATES = """
+      WITH previous AS (
+        SELECT id, name, brand, state, version FROM devices
+        WHERE (CAST(:brand AS varchar) IS NULL
+               OR brand_normalized = lower(CAST(:brand AS varchar)))
+          AND (CAST(:currentState AS varchar) IS NULL
+               OR state = CAST(:currentState AS varchar))
+          AND (CAST(:createdFrom AS timestamptz) IS NULL
+               OR created_at >= CAST(:createdFrom AS timestamptz))
+          AND (CAST(:createdTo AS timestamptz) IS NULL
+               OR created_at < CAST(:createdTo AS timestamptz))
+          AND state <> CAST(:targetState AS varchar)
+          AND (CAST(:afterId AS uuid) IS NULL OR id > CAST(:afterId AS uuid))
+        ORDER BY id
+        LIMIT :limit
+        FOR UPDATE
+      )
+      UPDATE devices d
+      SET state = CAST(:targetState AS varchar),
+          version = d.version + 1,
+          archived = false
+      FROM previous p
+      WHERE d.id = p.id
+      RETURNING d.*, p.name AS previous_name, p.brand AS previous_brand,
+                p.state AS previous_state, p.version AS previous_version""";
+
+  // Matches come from the GIN index. The inner subquery stops after :maxCandidates of them, in
+  // no particular order, and only those are ranked, so a broad query never ranks or sorts more
+  // than that. With more matches the result is an approximate top-N: the best of whichever
+  // matches the scan returned first, and a later page may see a different set if the table
+  // changed in between. The CTE keeps the cursor predicate from being pushed below the cap.
+  // search_vector itself is not selected since the entity doesn't map it.
+  private static final String SEARCH = """
+      WITH q AS (SELECT to_tsquery('simple', :query) AS query),
+      candidates AS (
+        SELECT m.id, m.name, m.brand, m.brand_normalized, m.state, m.created_at, m.version,
+               m.archived, ts_rank(m.search_vector, q.query) AS rank
+        FROM (
+          SELECT d.id, d.name, d.brand, d.brand_normalized, d.state, d.created_at, d.version,
+                 d.archived, d.search_vector
+          FROM devices d, q
+          WHERE d.search_vector @@ q.query
+          LIMIT :maxCandidates
+        ) m, q
+      )
+      SELECT * FROM candidates d
+      WHERE CAST(:afterRank AS real) IS NULL
+         OR d.rank < CAST(:afterRank AS real)
+         OR (d.rank = CAST(:afterRank AS real) AND d.id > CAST(:afterId AS uuid))
+      ORDER BY d.rank DESC, d.id
+      LIMIT :limit""";
+
+  private final EntityManager entityManager;
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Optional<DeviceUpdate> updateIfMutable(UUID id, String name, String brand, String state,
+      Long expectedVersion) {
+    List<Object[]> rows = entityManager.createNativeQuery(UPDATE_IF_MUTABLE)
+        .unwrap(NativeQuery.class)
+        .addEntity("d", Device.class)
+        .addScalar("previous_name", StandardBasicTypes.STRING)
+        .addScalar("previous_brand", StandardBasicTypes.STRING)
+        .addScalar("previous_state", StandardBasicTypes.STRING)
+        .addScalar("previous_version", StandardBasicTypes.LONG)
+        .setParameter("id", id)
+        // typed so that nulls bind as varchar/bigint rather than an unknown type
+        .setParameter("name", name, StandardBasicTypes.STRING)
+        .setParameter("brand", brand, StandardBasicTypes.STRING)
+        .setParameter("state", state, StandardBasicTypes.STRING)
+        .setParameter("expectedVersion", expectedVersion, StandardBasicTypes.LONG)
+        .getResultList();
+    return rows.stream().findFirst().map(DeviceRepositoryImpl::toUpdate);
+  }
+
+  // Rows of UPDATE ... RETURNING d.*, previous_name, previous_brand, previous_state,
+  // previous_version
+  private static DeviceUpdate toUpdate(Object[] row) {
+    Device device = (Device) row[0];
+    DeviceSnapshot previous = new DeviceSnapshot(device.getId(), (String) row[1],
+        (String) row[2], DeviceState.valueOf((String) row[3]), device.getCreatedAt(),
+        (Long) row[4]);
+    return new DeviceUpdate(device, previous);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public List<DeviceUpdate> transitionStates(String brand, String currentState,
+      Instant createdFrom, Instant createdTo, String targetState, UUID afterId, int limit) {
+    List<Object[]> rows = entityManager.createNativeQuery(TRANSITION_STATES)
+        .unwrap(NativeQuery.class)
+        .addEntity("d", Device.class)
+        .addScalar("previous_name", StandardBasicTypes.STRING)
+        .addScalar("previous_brand", StandardBasicTypes.STRING)
+        .addScalar("previous_state", StandardBasicTypes.STRING)
+        .addScalar("previous_version", StandardBasicTypes.LONG)
+        .setParameter("brand", brand, StandardBasicTypes.STRING)
+        .setParameter("currentState", currentState, StandardBasicTypes.STRING)
+        .setParameter("createdFrom", createdFrom, StandardBasicTypes.INSTANT)
+        .setParameter("createdTo", createdTo, StandardBasicTypes.INSTANT)
+        .setParameter("targetState", targetState, StandardBasicTypes.STRING)
+        .setParameter("afterId", afterId, StandardBasicTypes.UUID)
+        .setParameter("limit", limit)
+        .getResultList();
+    return rows.stream().map(DeviceRepositoryImpl::toUpdate).toList();
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public List<DeviceSearchHit> search(String tsQuery, Float afterRank, UUID afterId, int limit,
+      int maxCandidates) {
+    List<Object[]> rows = entityManager.createNativeQuery(SEARCH)
+        .unwrap(NativeQuery.class)
+        .addEntity("d", Device.class)
+        .addScalar("rank", StandardBasicTypes.FLOAT)
+        .setParameter("query", tsQuery)
+        .setParameter("afterRank", afterRank, StandardBasicTypes.FLOAT)
+        .setParameter("afterId", afterId, StandardBasicTypes.UUID)
+        .setParameter("limit", limit)
+        .setParameter("maxCandidates", maxCandidates)
+        .getResultList();
+    return rows.stream().map(row -> new DeviceSearchHit((Device) row[0], (Float) row[1])).toList();
+  }
+
+  @Override
+  public List<DeviceView> findViews(Set<DeviceField> fields, DeviceFilter filter,
+      Instant afterCreatedAt, UUID afterId, Integer limit) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Tuple> query = cb.createTupleQuery();
+    Root<Device> d = query.from(Device.class);
+
+    List<Selection<?>> columns = new ArrayList<>(fields.size());
+    for (DeviceField field : fields) {
+      columns.add(d.get(field.property()).alias(field.property()));
+    }
+    query.multiselect(columns);
+
+    // Same WHERE clause as the entity lists, so both use the same indexes
+    List<Predicate> where = new ArrayList<>(3);
+    where.add(DeviceSpecifications.matching(filter).toPredicate(d, query, cb));
+    Path<Instant> createdAt = d.get("createdAt");
+    Path<UUID> id = d.get("id");
+    if (afterCreatedAt != null) {
+      // Same keyset predicate as the native page queries
+      where.add(cb.greaterThanOrEqualTo(createdAt, afterCreatedAt));
+      where.add(cb.or(cb.greaterThan(createdAt, afterCreatedAt), cb.greaterThan(id, afterId)));
+    }
+    query.where(where.toArray(Predicate[]::new));
+    query.orderBy(QueryUtils.toOrders(filter.sort().toSort(), d, cb));
+
+    TypedQuery<Tuple> typed = entityManager.createQuery(query);
+    if (limit != null) {
+      typed.setMaxResults(limit);
+    }
+    return typed.getResultList().stream().map(row -> toView(row, fields)).toList();
+  }
+
+  private static DeviceView toView(Tuple row, Set<DeviceField> fields) {
+    return new DeviceView(
+        value(row, fields, DeviceField.ID, UUID.class),
+        value(row, fields, DeviceField.NAME, String.class),
+        value(row, fields, DeviceField.BRAND, String.class),
+        value(row, fields, DeviceField.STATE, DeviceState.class),
+        value(row, fields, DeviceField.CREATED_AT, Instant.class),
+        value(row, fields, DeviceField.VERSION, Long.class));
+  }
+
+  private static <T> T value(Tuple row, Set<DeviceField> fields, DeviceField field,
+      Class<T> type) {
+    return fields.contains(field) ? row.get(field.property(), type) : null;
+  }
+}
@@ -0,0 +1,48 @@
+package org.assessment.devicemanagement.repository;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Predicate;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.assessment.devicemanagement.model.Device;
+import org.assessment.devicemanagement.model.DeviceFilter;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Translates a {@link DeviceFilter} into one WHERE clause. Brands and states become
+ * {@code IN} lists on {@code brand_normalized} and {@code state}, which Postgres matches against
+ * the leading columns of the (brand_normalized, state, created_at, id) and
+ * (state, created_at, id) indexes, with the createdAt bounds as range conditions on the next.
+ * Unless archived devices are included, {@code archived = false} prunes the scan to devices_hot.
+ */
+public final class DeviceSpecifications {
+
+  private DeviceSpecifications() {
+  }
+
+  public static Specification<Device> matching(DeviceFilter filter) {
+    return (d, query, cb) -> {
+      List<Predicate> where = new ArrayList<>(5);
+      if (!filter.includeArchived()) {
+        where.add(cb.isFalse(d.get("archived")));
+      }
+      if (!filter.brands().isEmpty()) {
+        // lower() on the database side, like the single-brand queries
+        CriteriaBuilder.In<String> brands = cb.in(d.get("brandNormalized"));
+        filter.brands().forEach(brand -> brands.value(cb.lower(cb.literal(brand))));
+        where.add(brands);
+      }
+      if (!filter.states().isEmpty()) {
+        where.add(d.get("state").in(filter.states()));
+      }
+      if (filter.createdFrom() != null) {
+        where.add(cb.greaterThanOrEqualTo(d.<Instant>get("createdAt"), filter.createdFrom()));
+      }
+      if (filter.createdTo() != null) {
+        where.add(cb.lessThan(d.<Instant>get("createdAt"), filter.createdTo()));
+      }
+      return cb.and(where.toArray(Predicate[]::new));
+    };
+  }
+}
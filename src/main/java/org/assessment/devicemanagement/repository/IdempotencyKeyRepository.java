@@ -0,0 +1,62 @@
+package org.assessment.devicemanagement.repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * JDBC access to {@code idempotency_keys}. Keys are scoped by client: equal keys of different
+ * clients are unrelated.
+ */
+@Repository
+@RequiredArgsConstructor
+public class IdempotencyKeyRepository {
+
+  public record StoredResponse(String requestHash, String response) {
+
+  }
+
+  private final JdbcTemplate jdbc;
+
+  /**
+   * Claims the client's {@code key} in the caller's transaction; {@code false} when it is already
+   * taken and not expired (created before {@code expiredBefore}). While another transaction holds
+   * an uncommitted claim on the key, Postgres blocks this statement until that one finishes, so a
+   * {@code false} result always refers to a committed response.
+   */
+  public boolean claim(String clientId, String key, String requestHash, Instant expiredBefore) {
+    return jdbc.update("""
+            INSERT INTO idempotency_keys (client_id, idempotency_key, request_hash)
+            VALUES (?, ?, ?)
+            ON CONFLICT (client_id, idempotency_key) DO UPDATE
+              SET request_hash = EXCLUDED.request_hash, device_id = NULL, response = NULL,
+                  created_at = now()
+              WHERE idempotency_keys.created_at < ?
+            """, clientId, key, requestHash, Timestamp.from(expiredBefore)) == 1;
+  }
+
+  public void complete(String clientId, String key, UUID deviceId, String response) {
+    jdbc.update("""
+            UPDATE idempotency_keys SET device_id = ?, response = ?
+            WHERE client_id = ? AND idempotency_key = ?
+            """, deviceId, response, clientId, key);
+  }
+
+  public Optional<StoredResponse> find(String clientId, String key) {
+    return jdbc.query("""
+            SELECT request_hash, response FROM idempotency_keys
+            WHERE client_id = ? AND idempotency_key = ? AND response IS NOT NULL
+            """,
+        (rs, rowNum) -> new StoredResponse(rs.getString(1), rs.getString(2)), clientId, key)
+        .stream().findFirst();
+  }
+
+  public int deleteCreatedBefore(Instant cutoff) {
+    return jdbc.update("DELETE FROM idempotency_keys WHERE created_at < ?",
+        Timestamp.from(cutoff));
+  }
+}
@@ -0,0 +1,90 @@
+package org.assessment.devicemanagement.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.assessment.devicemanagement.event.DeviceChangeType;
+import org.assessment.devicemanagement.model.OutboxMessage;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * JDBC access to {@code device_outbox}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OutboxRepository {
+
+  public record Entry(UUID deviceId, DeviceChangeType type, String payload) {
+
+  }
+
+  /**
+   * @param oldest creation time of the oldest pending message; {@code null} when there is none
+   */
+  public record Backlog(long pending, Instant oldest) {
+
+  }
+
+  private final JdbcTemplate jdbc;
+
+  /**
+   * Appends the entries in the caller's transaction, as one JDBC batch.
+   */
+  public void append(List<Entry> entries) {
+    jdbc.batchUpdate("""
+            INSERT INTO device_outbox (device_id, event_type, payload)
+            VALUES (?, ?, CAST(? AS jsonb))
+            """,
+        entries, entries.size(), (ps, entry) -> {
+          ps.setObject(1, entry.deviceId());
+          ps.setString(2, entry.type().name());
+          ps.setString(3, entry.payload());
+        });
+  }
+
+  /**
+   * Locks up to {@code limit} of the oldest messages until the caller's transaction ends. Rows
+   * already claimed by another publisher are skipped, not waited for.
+   */
+  public List<OutboxMessage> claim(int limit) {
+    return jdbc.query("""
+            SELECT id, device_id, event_type, payload, created_at
+            FROM device_outbox
+            ORDER BY id
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+            """,
+        OutboxRepository::mapRow, limit);
+  }
+
+  /**
+   * Counts the pending messages, including ones currently claimed by a publisher.
+   */
+  public Backlog backlog() {
+    return jdbc.queryForObject("SELECT count(*), min(created_at) FROM device_outbox",
+        (rs, rowNum) -> {
+          OffsetDateTime oldest = rs.getObject(2, OffsetDateTime.class);
+          return new Backlog(rs.getLong(1), oldest != null ? oldest.toInstant() : null);
+        });
+  }
+
+  public void delete(List<OutboxMessage> messages) {
+    Long[] ids = messages.stream().map(OutboxMessage::id).toArray(Long[]::new);
+    jdbc.update("DELETE FROM device_outbox WHERE id = ANY(?)",
+        ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids)));
+  }
+
+  private static OutboxMessage mapRow(ResultSet rs, int rowNum) throws SQLException {
+    return new OutboxMessage(
+        rs.getLong("id"),
+        rs.getObject("device_id", UUID.class),
+        DeviceChangeType.valueOf(rs.getString("event_type")),
+        rs.getString("payload"),
+        rs.getObject("created_at", OffsetDateTime.class).toInstant());
+  }
+}
@@ -0,0 +1,127 @@
+package org.assessment.devicemanagement.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import org.assessment.devicemanagement.config.CoalescingProperties;
+import org.assessment.devicemanagement.datasource.ReadRouting;
+import org.assessment.devicemanagement.dto.CreateDeviceRequest;
+import org.assessment.devicemanagement.dto.PatchDeviceRequest;
+import org.assessment.devicemanagement.dto.UpdateDeviceRequest;
+import org.assessment.devicemanagement.event.DeviceChangedEvent;
+import org.assessment.devicemanagement.model.Device;
+import org.assessment.devicemanagement.model.DeviceField;
+import org.assessment.devicemanagement.model.DeviceFilter;
+import org.assessment.devicemanagement.model.DevicePage;
+import org.assessment.devicemanagement.model.DeviceSearchPage;
+import org.assessment.devicemanagement.model.DeviceState;
+import org.assessment.devicemanagement.model.DeviceView;
+import org.assessment.devicemanagement.model.DeviceViewPage;
+import org.assessment.devicemanagement.util.DeviceCursor;
+import org.assessment.devicemanagement.util.SearchCursor;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Single-flight front of {@link DeviceServiceImpl}: concurrent {@link #get} calls for the same id,
+ * and {@link #getDevices} calls with equal filters, share one query (see {@link SingleFlight}).
+ * It sits outside the transactional proxy, so waiting callers hold no transaction or connection.
+ * Results are shared, so callers must treat them as read-only, as with {@code DeviceCache}.
+ *
+ * <p>A committed write makes later calls start a new query, so a client never gets a result
+ * older than its own write; the coalescing window only adds staleness for other instances'
+ * writes. Calls pinned to the primary ({@link ReadRouting}) are never coalesced, since a shared
+ * result may have come from a replica. Everything else is passed through.
+ */
+@Service
+@Primary
+public class CoalescingDeviceService implements DeviceService {
+
+  private final DeviceServiceImpl delegate;
+  private final boolean enabled;
+  private final SingleFlight<UUID, Device> byId;
+  private final SingleFlight<DeviceFilter, List<Device>> lists;
+
+  public CoalescingDeviceService(DeviceServiceImpl delegate, CoalescingProperties properties,
+      MeterRegistry registry) {
+    this.delegate = delegate;
+    this.enabled = properties.enabled();
+    this.byId = new SingleFlight<>("get", properties.window(), properties.maxKeys(), registry);
+    this.lists = new SingleFlight<>("list", properties.window(), properties.maxKeys(), registry);
+  }
+
+  @Override
+  public Device get(UUID id) {
+    return coalesce() ? byId.execute(id, () -> delegate.get(id)) : delegate.get(id);
+  }
+
+  @Override
+  public List<Device> getDevices(DeviceFilter filter) {
+    if (!coalesce()) {
+      return delegate.getDevices(filter);
+    }
+    return lists.execute(filter, () -> List.copyOf(delegate.getDevices(filter)));
+  }
+
+  private boolean coalesce() {
+    return enabled && !ReadRouting.isPrimaryRequired();
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onDeviceChanged(DeviceChangedEvent event) {
+    byId.forget(event.deviceId());
+    // Any write may change any list
+    lists.forgetAll();
+  }
+
+  @Override
+  public Device create(CreateDeviceRequest req) {
+    return delegate.create(req);
+  }
+
+  @Override
+  public DevicePage getDevicePage(String brand, DeviceState state, DeviceCursor after,
+      int limit) {
+    return delegate.getDevicePage(brand, state, after, limit);
+  }
+
+  @Override
+  public List<DeviceView> getDeviceViews(DeviceFilter filter, Set<DeviceField> fields) {
+    return delegate.getDeviceViews(filter, fields);
+  }
+
+  @Override
+  public DeviceViewPage getDeviceViewPage(String brand, DeviceState state,
+      Set<DeviceField> fields, DeviceCursor after, int limit) {
+    return delegate.getDeviceViewPage(brand, state, fields, after, limit);
+  }
+
+  @Override
+  public DeviceSearchPage search(String text, SearchCursor after, int limit) {
+    return delegate.search(text, after, limit);
+  }
+
+  @Override
+  public void exportDevices(String brand, DeviceState state, Consumer<Device> action) {
+    delegate.exportDevices(brand, state, action);
+  }
+
+  @Override
+  public Device update(UUID id, UpdateDeviceRequest req, Long expectedVersion) {
+    return delegate.update(id, req, expectedVersion);
+  }
+
+  @Override
+  public Device patch(UUID id, PatchDeviceRequest req, Long expectedVersion) {
+    return delegate.patch(id, req, expectedVersion);
+  }
+
+  @Override
+  public void delete(UUID id, Long expectedVersion) {
+    delegate.delete(id, expectedVersion);
+  }
+}
@@ -0,0 +1,28 @@
+package org.assessment.devicemanagement.service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.assessment.devicemanagement.dto.CreateDeviceRequest;
+import org.assessment.devicemanagement.dto.DevicePatchItem;
+import org.assessment.devicemanagement.model.BatchItemOutcome;
+import org.assessment.devicemanagement.model.DeviceState;
+
+public interface DeviceBatchService {
+
+  /**
+   * Applies creates, then patches, then deletes. Work is committed in chunks, so a failure only
+   * affects the items of its own chunk; every item gets an outcome.
+   */
+  List<BatchItemOutcome> apply(List<CreateDeviceRequest> creates, List<DevicePatchItem> patches,
+      List<UUID> deletes);
+
+  /**
+   * Moves every device matching the (nullable) criteria to {@code target} with set-based
+   * updates, one transaction per chunk, and returns how many changed. Each device gets the same
+   * change event as a PATCH of its state. Chunks commit independently; after a failure, calling
+   * again completes the transition, since transitioned devices no longer match.
+   */
+  long transitionStates(String brand, DeviceState current, Instant createdFrom, Instant createdTo,
+      DeviceState target);
+}
@@ -0,0 +1,215 @@
+package org.assessment.devicemanagement.service;
+
+import static org.assessment.devicemanagement.model.BatchItemOutcome.failure;
+import static org.assessment.devicemanagement.model.BatchItemOutcome.success;
+
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.assessment.devicemanagement.config.BatchProperties;
+import org.assessment.devicemanagement.dto.CreateDeviceRequest;
+import org.assessment.devicemanagement.dto.DevicePatchItem;
+import org.assessment.devicemanagement.event.DeviceSnapshot;
+import org.assessment.devicemanagement.event.DeviceChangedEvent;
+import org.assessment.devicemanagement.exception.DomainValidationException;
+import org.assessment.devicemanagement.model.BatchItemOutcome;
+import org.assessment.devicemanagement.model.BatchItemOutcome.Operation;
+import org.assessment.devicemanagement.model.BatchItemOutcome.Status;
+import org.assessment.devicemanagement.model.Device;
+import org.assessment.devicemanagement.model.DeviceState;
+import org.assessment.devicemanagement.model.DeviceUpdate;
+import org.assessment.devicemanagement.repository.DeviceRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Batch writes run one transaction per chunk and flush the chunk once, so Hibernate sends the
+ * statements as JDBC batches (see {@code hibernate.jdbc.batch_size}). Ids come from the in-memory
+ * UUID generator at persist time, which keeps inserts batchable.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeviceBatchServiceImpl implements DeviceBatchService {
+
+  // Postgres orders uuids by their bytes, unsigned; UUID.compareTo compares signed longs
+  private static final Comparator<UUID> POSTGRES_UUID_ORDER = Comparator
+      .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+      .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+  private final DeviceRepository repo;
+  private final EntityManager entityManager;
+  private final ApplicationEventPublisher events;
+  private final TransactionTemplate transactionTemplate;
+  private final BatchProperties properties;
+
+  @Override
+  public List<BatchItemOutcome> apply(List<CreateDeviceRequest> creates,
+      List<DevicePatchItem> patches, List<UUID> deletes) {
+    List<BatchItemOutcome> outcomes = new ArrayList<>(creates.size() + patches.size()
+        + deletes.size());
+    inChunks(Operation.CREATE, creates, req -> null, this::createChunk, outcomes);
+    inChunks(Operation.PATCH, patches, DevicePatchItem::id, this::patchChunk, outcomes);
+    inChunks(Operation.DELETE, deletes, Function.identity(), this::deleteChunk, outcomes);
+    return outcomes;
+  }
+
+  @Override
+  public long transitionStates(String brand, DeviceState current, Instant createdFrom,
+      Instant createdTo, DeviceState target) {
+    int chunkSize = Math.max(1, properties.chunkSize());
+    String currentState = current != null ? current.name() : null;
+    long total = 0;
+    UUID afterId = null;
+    List<UUID> ids;
+    do {
+      UUID from = afterId;
+      ids = transactionTemplate.execute(status -> {
+        List<DeviceUpdate> updated = repo.transitionStates(brand, currentState, createdFrom,
+            createdTo, target.name(), from, chunkSize);
+        // Same events as DeviceServiceImpl.patch: change log, cache, stats, SSE, outbox
+        for (DeviceUpdate u : updated) {
+          events.publishEvent(DeviceChangedEvent.updated(u.previous(), u.device()));
+        }
+        entityManager.clear();
+        return updated.stream().map(u -> u.device().getId()).toList();
+      });
+      total += ids.size();
+      // RETURNING has no order, so the next chunk starts after the largest id of this one
+      afterId = ids.stream().max(POSTGRES_UUID_ORDER).orElse(null);
+    } while (ids.size() == chunkSize);
+    return total;
+  }
+
+  private List<BatchItemOutcome> createChunk(int offset, List<CreateDeviceRequest> chunk) {
+    List<Device> devices = new ArrayList<>(chunk.size());
+    for (CreateDeviceRequest req : chunk) {
+      Device d = new Device();
+      d.setName(req.name());
+      d.setBrand(req.brand());
+      d.setState(req.state());
+      devices.add(d);
+    }
+    repo.saveAll(devices);
+    flushAndClear();
+
+    List<BatchItemOutcome> outcomes = new ArrayList<>(devices.size());
+    for (int i = 0; i < devices.size(); i++) {
+      outcomes.add(success(Operation.CREATE, offset + i, Status.CREATED, devices.get(i)));
+      events.publishEvent(DeviceChangedEvent.created(devices.get(i)));
+    }
+    return outcomes;
+  }
+
+  private List<BatchItemOutcome> patchChunk(int offset, List<DevicePatchItem> chunk) {
+    Map<UUID, Device> existing = loadById(chunk.stream().map(DevicePatchItem::id).toList());
+
+    List<BatchItemOutcome> outcomes = new ArrayList<>(chunk.size());
+    List<DeviceUpdate> updated = new ArrayList<>(chunk.size());
+    for (int i = 0; i < chunk.size(); i++) {
+      DevicePatchItem item = chunk.get(i);
+      Device device = existing.get(item.id());
+      if (device == null) {
+        outcomes.add(failure(Operation.PATCH, offset + i, item.id(), Status.NOT_FOUND,
+            "Device not found: " + item.id()));
+        continue;
+      }
+      try {
+        DeviceRules.assertMutableIdentityIfInUse(device, item.changes().name(),
+            item.changes().brand());
+        DeviceSnapshot previous = DeviceSnapshot.of(device);
+        DeviceRules.applyPatch(device, item.changes());
+        outcomes.add(success(Operation.PATCH, offset + i, Status.UPDATED, device));
+        updated.add(new DeviceUpdate(device, previous));
+      } catch (DomainValidationException e) {
+        outcomes.add(failure(Operation.PATCH, offset + i, item.id(), Status.CONFLICT,
+            e.getMessage()));
+      }
+    }
+    // Dirty checking turns the modified entities into one batched UPDATE per JDBC batch
+    flushAndClear();
+    // Published after the flush so the events carry the incremented versions
+    for (DeviceUpdate u : updated) {
+      events.publishEvent(DeviceChangedEvent.updated(u.previous(), u.device()));
+    }
+    return outcomes;
+  }
+
+  private List<BatchItemOutcome> deleteChunk(int offset, List<UUID> chunk) {
+    // One conditional DELETE for the whole chunk. The IN_USE rule is part of its WHERE clause, so
+    // a device that turned IN_USE after the caller looked at it is kept, not deleted.
+    Map<UUID, Device> deleted = repo.deleteAllDeletable(new LinkedHashSet<>(chunk)).stream()
+        .collect(Collectors.toMap(Device::getId, Function.identity()));
+    // Requested devices that still exist were kept by the IN_USE rule
+    Set<UUID> kept = loadById(chunk.stream().filter(id -> !deleted.containsKey(id)).toList())
+        .keySet();
+    entityManager.clear();
+
+    List<BatchItemOutcome> outcomes = new ArrayList<>(chunk.size());
+    Set<UUID> published = new HashSet<>();
+    for (int i = 0; i < chunk.size(); i++) {
+      UUID id = chunk.get(i);
+      Device device = deleted.get(id);
+      if (device != null) {
+        if (published.add(id)) {
+          events.publishEvent(DeviceChangedEvent.deleted(id, device));
+        }
+        outcomes.add(success(Operation.DELETE, offset + i, Status.DELETED, device));
+      } else if (kept.contains(id)) {
+        outcomes.add(failure(Operation.DELETE, offset + i, id, Status.CONFLICT,
+            DeviceRules.DELETE_IN_USE));
+      } else {
+        outcomes.add(failure(Operation.DELETE, offset + i, id, Status.NOT_FOUND,
+            "Device not found: " + id));
+      }
+    }
+    return outcomes;
+  }
+
+  private Map<UUID, Device> loadById(List<UUID> ids) {
+    return repo.findAllById(ids).stream()
+        .collect(Collectors.toMap(Device::getId, Function.identity()));
+  }
+
+  private void flushAndClear() {
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  private <T> void inChunks(Operation operation, List<T> items, Function<T, UUID> idOf,
+      ChunkWriter<T> writer, List<BatchItemOutcome> outcomes) {
+    int chunkSize = Math.max(1, properties.chunkSize());
+    for (int from = 0; from < items.size(); from += chunkSize) {
+      int offset = from;
+      List<T> chunk = items.subList(from, Math.min(from + chunkSize, items.size()));
+      try {
+        outcomes.addAll(transactionTemplate.execute(status -> writer.write(offset, chunk)));
+      } catch (RuntimeException e) {
+        // The chunk's transaction was rolled back, so none of its items were applied
+        log.warn("Batch {} chunk at offset {} failed", operation, offset, e);
+        for (int i = 0; i < chunk.size(); i++) {
+          outcomes.add(failure(operation, offset + i, idOf.apply(chunk.get(i)), Status.FAILED,
+              "Chunk could not be written; no item of it was applied."));
+        }
+      }
+    }
+  }
+
+  @FunctionalInterface
+  private interface ChunkWriter<T> {
+
+    List<BatchItemOutcome> write(int offset, List<T> chunk);
+  }
+}
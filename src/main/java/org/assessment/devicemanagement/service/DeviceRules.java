@@ -0,0 +1,58 @@
+package org.assessment.devicemanagement.service;
+
+import org.assessment.devicemanagement.dto.PatchDeviceRequest;
+import org.assessment.devicemanagement.exception.DomainValidationException;
+import org.assessment.devicemanagement.model.Device;
+import org.assessment.devicemanagement.model.DeviceState;
+
+/**
+ * Domain rules for entity-based writes (batch path). The single-device path enforces the same
+ * rules in SQL (see {@code DeviceRepository#updateIfMutable}) and reuses the messages.
+ */
+final class DeviceRules {
+
+  static final String IDENTITY_LOCKED = "Name/brand cannot be updated when device is IN_USE.";
+  static final String DELETE_IN_USE = "IN_USE devices cannot be deleted.";
+
+  private DeviceRules() {
+  }
+
+  static void assertDeletable(Device device) {
+    if (device.getState() == DeviceState.IN_USE) {
+      throw new DomainValidationException(DELETE_IN_USE);
+    }
+  }
+
+  /**
+   * Rule: Name and brand cannot be updated if device is IN_USE. For PUT: newName/newBrand are
+   * always non-null (validated). For PATCH: newName/newBrand can be null; null means "no change
+   * requested".
+   */
+  static void assertMutableIdentityIfInUse(Device existing, String newName, String newBrand) {
+    if (existing.getState() != DeviceState.IN_USE) {
+      return;
+    }
+
+    boolean nameChangeRequested = newName != null && !newName.equals(existing.getName());
+    boolean brandChangeRequested = newBrand != null && !newBrand.equals(existing.getBrand());
+
+    if (nameChangeRequested || brandChangeRequested) {
+      throw new DomainValidationException(IDENTITY_LOCKED);
+    }
+  }
+
+  /**
+   * Copies the provided (non-null) PATCH fields onto the device.
+   */
+  static void applyPatch(Device existing, PatchDeviceRequest req) {
+    if (req.name() != null) {
+      existing.setName(req.name());
+    }
+    if (req.brand() != null) {
+      existing.setBrand(req.brand());
+    }
+    if (req.state() != null) {
+      existing.setState(req.state());
+    }
+  }
+}
@@ -1,12 +1,22 @@
 package org.assessment.devicemanagement.service;
 
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import org.assessment.devicemanagement.dto.CreateDeviceRequest;
 import org.assessment.devicemanagement.dto.PatchDeviceRequest;
 import org.assessment.devicemanagement.dto.UpdateDeviceRequest;
 import org.assessment.devicemanagement.model.Device;
+import org.assessment.devicemanagement.model.DeviceField;
+import org.assessment.devicemanagement.model.DeviceFilter;
+import org.assessment.devicemanagement.model.DevicePage;
+import org.assessment.devicemanagement.model.DeviceSearchPage;
 import org.assessment.devicemanagement.model.DeviceState;
+import org.assessment.devicemanagement.model.DeviceView;
+import org.assessment.devicemanagement.model.DeviceViewPage;
+import org.assessment.devicemanagement.util.DeviceCursor;
+import org.assessment.devicemanagement.util.SearchCursor;
 
 public interface DeviceService {
 
@@ -14,11 +24,37 @@ public interface DeviceService {
 
   Device get(UUID id);
 
-  List<Device> getDevices(String brand, DeviceState state);
+  /**
+   * All devices matching {@code filter}, in its sort order, from a single query.
+   */
+  List<Device> getDevices(DeviceFilter filter);
 
-  Device update(UUID id, UpdateDeviceRequest req);   // PUT
+  DevicePage getDevicePage(String brand, DeviceState state, DeviceCursor after, int limit);
 
-  Device patch(UUID id, PatchDeviceRequest req);     // PATCH
+  // Projection variants for fields=: only the requested columns are read, no entities are managed
 
-  void delete(UUID id);
+  List<DeviceView> getDeviceViews(DeviceFilter filter, Set<DeviceField> fields);
+
+  DeviceViewPage getDeviceViewPage(String brand, DeviceState state, Set<DeviceField> fields,
+      DeviceCursor after, int limit);
+
+  /**
+   * Prefix full-text search over name and brand, best match first; every term of {@code text}
+   * must match.
+   */
+  DeviceSearchPage search(String text, SearchCursor after, int limit);
+
+  /**
+   * Feeds every matching device to {@code action} while streaming from the database. Devices are
+   * detached once handled, so memory use does not grow with the result size.
+   */
+  void exportDevices(String brand, DeviceState state, Consumer<Device> action);
+
+  // expectedVersion comes from If-Match; null means unconditional
+
+  Device update(UUID id, UpdateDeviceRequest req, Long expectedVersion);   // PUT
+
+  Device patch(UUID id, PatchDeviceRequest req, Long expectedVersion);     // PATCH
+
+  void delete(UUID id, Long expectedVersion);
 }
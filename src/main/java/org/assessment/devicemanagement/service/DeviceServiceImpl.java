@@ -1,25 +1,62 @@
 package org.assessment.devicemanagement.service;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import java.util.List;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
+import org.assessment.devicemanagement.cache.DeviceCache;
+import org.assessment.devicemanagement.datasource.ReadRouting;
 import org.assessment.devicemanagement.dto.CreateDeviceRequest;
 import org.assessment.devicemanagement.dto.PatchDeviceRequest;
 import org.assessment.devicemanagement.dto.UpdateDeviceRequest;
+import org.assessment.devicemanagement.event.DeviceChangedEvent;
 import org.assessment.devicemanagement.exception.DomainValidationException;
 import org.assessment.devicemanagement.exception.NotFoundException;
+import org.assessment.devicemanagement.exception.PreconditionFailedException;
+import org.assessment.devicemanagement.metrics.DeviceMetrics;
+import org.assessment.devicemanagement.metrics.DeviceMetrics.Query;
 import org.assessment.devicemanagement.model.Device;
+import org.assessment.devicemanagement.model.DeviceField;
+import org.assessment.devicemanagement.model.DeviceFilter;
+import org.assessment.devicemanagement.model.DevicePage;
+import org.assessment.devicemanagement.model.DeviceSort;
+import org.assessment.devicemanagement.model.DeviceSearchHit;
+import org.assessment.devicemanagement.model.DeviceSearchPage;
 import org.assessment.devicemanagement.model.DeviceState;
+import org.assessment.devicemanagement.model.DeviceUpdate;
+import org.assessment.devicemanagement.model.DeviceView;
+import org.assessment.devicemanagement.model.DeviceViewPage;
 import org.assessment.devicemanagement.repository.DeviceRepository;
+import org.assessment.devicemanagement.repository.DeviceSpecifications;
+import org.assessment.devicemanagement.util.DeviceCursor;
+import org.assessment.devicemanagement.util.SearchCursor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
+@Timed(DeviceMetrics.SERVICE_TIMER)
 public class DeviceServiceImpl implements DeviceService {
 
+  static final int MAX_PAGE_SIZE = 500;
+  // Broad queries (a single short prefix) rank at most this many matches: an approximate top-N
+  static final int MAX_SEARCH_CANDIDATES = 10_000;
+
   private final DeviceRepository repo;
+  private final EntityManager entityManager;
+  private final ApplicationEventPublisher events;
+  private final DeviceCache cache;
+  private final DeviceMetrics metrics;
 
   @Override
   public Device create(CreateDeviceRequest req) {
@@ -28,94 +65,184 @@ public class DeviceServiceImpl implements DeviceService {
     d.setBrand(req.brand());
     d.setState(req.state());
     // creationTime is set in @PrePersist
-    return repo.save(d);
+    Device saved = repo.save(d);
+    events.publishEvent(DeviceChangedEvent.created(saved));
+    return saved;
   }
 
+  /**
+   * Served from {@link DeviceCache}; no transaction is opened unless the device has to be loaded.
+   */
   @Override
-  @Transactional(readOnly = true)
+  @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
   public Device get(UUID id) {
-    return repo.findById(id)
+    return cache.get(id, this::load);
+  }
+
+  // Cache fills read the primary: a lagging replica's row would be served until the next write
+  private Device load(UUID id) {
+    return ReadRouting.onPrimary(() -> repo.findById(id))
         .orElseThrow(() -> new NotFoundException("Device not found: " + id));
   }
 
   @Override
   @Transactional(readOnly = true)
-  public List<Device> getDevices(String brand, DeviceState state) {
+  public List<Device> getDevices(DeviceFilter filter) {
+    List<Device> devices = repo.findAll(DeviceSpecifications.matching(filter),
+        filter.sort().toSort());
+    metrics.recordRows(Query.LIST, filter, devices.size());
+    return devices;
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public DevicePage getDevicePage(String brand, DeviceState state, DeviceCursor after, int limit) {
+    int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    DeviceCursor from = after != null ? after : DeviceCursor.START;
+
+    // Fetch one extra row to learn whether another page exists without a count query
+    List<Device> rows = findPage(brand, state, from, size + 1);
+    metrics.recordRows(Query.PAGE, brand, state, Math.min(rows.size(), size));
+    if (rows.size() <= size) {
+      return new DevicePage(rows, null);
+    }
+    List<Device> items = rows.subList(0, size);
+    return new DevicePage(items, DeviceCursor.of(items.get(size - 1)));
+  }
+
+  private List<Device> findPage(String brand, DeviceState state, DeviceCursor from, int limit) {
     if (brand != null && state != null) {
-      return repo.findByBrandIgnoreCaseAndState(brand, state);
+      return repo.findPageByBrandAndStateAfter(brand, state.name(), from.createdAt(), from.id(),
+          limit);
     }
     if (brand != null) {
-      return repo.findByBrandIgnoreCase(brand);
+      return repo.findPageByBrandAfter(brand, from.createdAt(), from.id(), limit);
     }
     if (state != null) {
-      return repo.findByState(state);
+      return repo.findPageByStateAfter(state.name(), from.createdAt(), from.id(), limit);
     }
-    return repo.findAll();
+    return repo.findPageAfter(from.createdAt(), from.id(), limit);
   }
 
   @Override
-  public Device update(UUID id, UpdateDeviceRequest req) {
-    Device existing = get(id);
-
-    // Validation ensures name/brand/state are non-null for PUT
-    assertMutableIdentityIfInUse(existing, req.name(), req.brand());
-
-    existing.setName(req.name());
-    existing.setBrand(req.brand());
-    existing.setState(req.state());
+  @Transactional(readOnly = true)
+  public List<DeviceView> getDeviceViews(DeviceFilter filter, Set<DeviceField> fields) {
+    List<DeviceView> views = repo.findViews(fields, filter, null, null, null);
+    metrics.recordRows(Query.LIST, filter, views.size());
+    return views;
+  }
 
-    // creationTime is immutable and not in DTO
-    return repo.save(existing);
+  @Override
+  @Transactional(readOnly = true)
+  public DeviceViewPage getDeviceViewPage(String brand, DeviceState state,
+      Set<DeviceField> fields, DeviceCursor after, int limit) {
+    int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    DeviceCursor from = after != null ? after : DeviceCursor.START;
+    // The keyset columns are always read so the next cursor can be built
+    Set<DeviceField> columns = EnumSet.of(DeviceField.ID, DeviceField.CREATED_AT);
+    columns.addAll(fields);
+
+    // Pages include archived devices, like the entity pages
+    DeviceFilter filter = new DeviceFilter(brand != null ? Set.of(brand) : null,
+        state != null ? Set.of(state) : null, null, null, DeviceSort.CREATED_AT, true);
+    List<DeviceView> rows = repo.findViews(columns, filter, from.createdAt(), from.id(),
+        size + 1);
+    metrics.recordRows(Query.PAGE, brand, state, Math.min(rows.size(), size));
+    if (rows.size() <= size) {
+      return new DeviceViewPage(rows, null);
+    }
+    List<DeviceView> items = rows.subList(0, size);
+    DeviceView last = items.get(size - 1);
+    return new DeviceViewPage(items, new DeviceCursor(last.createdAt(), last.id()));
   }
 
   @Override
-  public Device patch(UUID id, PatchDeviceRequest req) {
-    Device existing = get(id);
+  @Transactional(readOnly = true)
+  public DeviceSearchPage search(String text, SearchCursor after, int limit) {
+    int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    String query = SearchTerms.toPrefixQuery(text);
+
+    List<DeviceSearchHit> hits = after != null
+        ? repo.search(query, after.rank(), after.id(), size + 1, MAX_SEARCH_CANDIDATES)
+        : repo.search(query, null, null, size + 1, MAX_SEARCH_CANDIDATES);
+    metrics.recordRows(Query.SEARCH, null, null, Math.min(hits.size(), size));
+    List<Device> items = hits.stream().limit(size).map(DeviceSearchHit::device).toList();
+    if (hits.size() <= size) {
+      return new DeviceSearchPage(items, null);
+    }
+    DeviceSearchHit last = hits.get(size - 1);
+    return new DeviceSearchPage(items, new SearchCursor(last.rank(), last.device().getId()));
+  }
 
-    // Only check if a change is requested (PATCH allows nulls)
-    assertMutableIdentityIfInUse(existing, req.name(), req.brand());
+  @Override
+  @Transactional(readOnly = true)
+  public void exportDevices(String brand, DeviceState state, Consumer<Device> action) {
+    AtomicLong count = new AtomicLong();
+    try (Stream<Device> rows = streamDevices(brand, state)) {
+      rows.forEach(device -> {
+        action.accept(device);
+        entityManager.detach(device);
+        count.incrementAndGet();
+      });
+    } finally {
+      metrics.recordRows(Query.EXPORT, brand, state, count.get());
+    }
+  }
 
-    if (req.name() != null) {
-      existing.setName(req.name());
+  private Stream<Device> streamDevices(String brand, DeviceState state) {
+    if (brand != null && state != null) {
+      return repo.streamByBrandAndState(brand, state);
     }
-    if (req.brand() != null) {
-      existing.setBrand(req.brand());
+    if (brand != null) {
+      return repo.streamByBrand(brand);
     }
-    if (req.state() != null) {
-      existing.setState(req.state());
+    if (state != null) {
+      return repo.streamByState(state);
     }
+    return repo.streamAll();
+  }
 
-    return repo.save(existing);
+  @Override
+  public Device update(UUID id, UpdateDeviceRequest req, Long expectedVersion) {
+    // Validation ensures name/brand/state are non-null for PUT; creationTime is not in the DTO
+    DeviceUpdate updated = repo
+        .updateIfMutable(id, req.name(), req.brand(), req.state().name(), expectedVersion)
+        .orElseThrow(() -> rejected(id, expectedVersion, DeviceRules.IDENTITY_LOCKED));
+    events.publishEvent(DeviceChangedEvent.updated(updated.previous(), updated.device()));
+    return updated.device();
   }
 
   @Override
-  public void delete(UUID id) {
-    Device existing = get(id);
-    assertDeletable(existing);
-    repo.delete(existing);
+  public Device patch(UUID id, PatchDeviceRequest req, Long expectedVersion) {
+    // Null fields are left untouched (and never count as a name/brand change)
+    String state = req.state() != null ? req.state().name() : null;
+    DeviceUpdate updated = repo
+        .updateIfMutable(id, req.name(), req.brand(), state, expectedVersion)
+        .orElseThrow(() -> rejected(id, expectedVersion, DeviceRules.IDENTITY_LOCKED));
+    events.publishEvent(DeviceChangedEvent.updated(updated.previous(), updated.device()));
+    return updated.device();
   }
 
-  private void assertDeletable(Device device) {
-    if (device.getState() == DeviceState.IN_USE) {
-      throw new DomainValidationException("IN_USE devices cannot be deleted.");
-    }
+  @Override
+  public void delete(UUID id, Long expectedVersion) {
+    Device deleted = repo.deleteIfDeletable(id, expectedVersion)
+        .orElseThrow(() -> rejected(id, expectedVersion, DeviceRules.DELETE_IN_USE));
+    events.publishEvent(DeviceChangedEvent.deleted(id, deleted));
   }
 
   /**
-   * Rule: Name and brand cannot be updated if device is IN_USE. For PUT: newName/newBrand are
-   * always non-null (validated). For PATCH: newName/newBrand can be null; null means "no change
-   * requested".
+   * A conditional write matched no row: the device is gone (404), the client's version is stale
+   * (412) or an IN_USE rule rejected the change (409).
    */
-  private void assertMutableIdentityIfInUse(Device existing, String newName, String newBrand) {
-    if (existing.getState() != DeviceState.IN_USE) {
-      return;
+  private RuntimeException rejected(UUID id, Long expectedVersion, String ruleViolation) {
+    Optional<Long> current = repo.findVersionById(id);
+    if (current.isEmpty()) {
+      return new NotFoundException("Device not found: " + id);
     }
-
-    boolean nameChangeRequested = newName != null && !newName.equals(existing.getName());
-    boolean brandChangeRequested = newBrand != null && !newBrand.equals(existing.getBrand());
-
-    if (nameChangeRequested || brandChangeRequested) {
-      throw new DomainValidationException("Name/brand cannot be updated when device is IN_USE.");
+    if (expectedVersion != null && !expectedVersion.equals(current.get())) {
+      return new PreconditionFailedException(
+          "Device %s has changed; current version is %d.".formatted(id, current.get()));
     }
+    return new DomainValidationException(ruleViolation);
   }
 }
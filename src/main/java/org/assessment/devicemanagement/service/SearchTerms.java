@@ -0,0 +1,41 @@
+package org.assessment.devicemanagement.service;
+
+import java.util.Locale;
+import java.util.StringJoiner;
+import org.assessment.devicemanagement.exception.InvalidParameterException;
+
+/**
+ * Turns free text into a {@code to_tsquery} prefix query: "MacBook Pro 14" becomes
+ * {@code macbook:* & pro:* & 14:*}. Terms are runs of letters and digits, so no tsquery operator
+ * can come from the client.
+ */
+final class SearchTerms {
+
+  static final int MAX_TERMS = 8;
+  private static final int MAX_TERM_LENGTH = 64;
+
+  private SearchTerms() {
+  }
+
+  static String toPrefixQuery(String text) {
+    StringJoiner query = new StringJoiner(" & ");
+    int terms = 0;
+    if (text != null) {
+      for (String term : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+        if (term.isEmpty()) {
+          continue;
+        }
+        if (++terms > MAX_TERMS) {
+          throw new InvalidParameterException("q",
+              "At most %d search terms are allowed.".formatted(MAX_TERMS));
+        }
+        String prefix = term.length() > MAX_TERM_LENGTH ? term.substring(0, MAX_TERM_LENGTH) : term;
+        query.add(prefix + ":*");
+      }
+    }
+    if (terms == 0) {
+      throw new InvalidParameterException("q", "The search text must contain a letter or digit.");
+    }
+    return query.toString();
+  }
+}
@@ -0,0 +1,94 @@
+package org.assessment.devicemanagement.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Merges concurrent calls with equal keys: the first caller (the leader) runs the loader on its
+ * own thread, the others wait for and share its result or exception. A completed result keeps
+ * being handed out for {@code window} (zero: only while it is in flight). Failures are never
+ * shared beyond the calls that were already waiting.
+ *
+ * <p>Calls are counted as {@code devices.singleflight.calls} by {@code operation} and
+ * {@code outcome} ({@code executed} or {@code coalesced}).
+ */
+final class SingleFlight<K, V> {
+
+  private final AsyncCache<K, V> flights;
+  private final boolean keepResults;
+  private final Counter executed;
+  private final Counter coalesced;
+
+  SingleFlight(String operation, Duration window, long maxKeys, MeterRegistry registry) {
+    this.keepResults = window.isPositive();
+    Caffeine<Object, Object> builder = Caffeine.newBuilder().maximumSize(maxKeys);
+    // Caffeine starts an async entry's expiry only once its future completes
+    this.flights = keepResults
+        ? builder.expireAfterWrite(window).buildAsync()
+        : builder.buildAsync();
+    this.executed = counter(registry, operation, "executed");
+    this.coalesced = counter(registry, operation, "coalesced");
+  }
+
+  V execute(K key, Supplier<V> loader) {
+    CompletableFuture<V> promise = new CompletableFuture<>();
+    CompletableFuture<V> shared = flights.get(key, (k, executor) -> promise);
+    if (shared != promise) {
+      coalesced.increment();
+      return join(shared);
+    }
+    executed.increment();
+    try {
+      V value = loader.get();
+      promise.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      // Completing exceptionally also removes the entry, so the next call retries
+      promise.completeExceptionally(e);
+      throw e;
+    } finally {
+      if (!keepResults) {
+        flights.asMap().remove(key, promise);
+      }
+    }
+  }
+
+  /**
+   * Makes later calls for {@code key} start a new flight; calls already waiting keep theirs.
+   */
+  void forget(K key) {
+    flights.synchronous().invalidate(key);
+  }
+
+  void forgetAll() {
+    flights.synchronous().invalidateAll();
+  }
+
+  private static <V> V join(CompletableFuture<V> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  private static Counter counter(MeterRegistry registry, String operation, String outcome) {
+    return Counter.builder("devices.singleflight.calls")
+        .description("Coalescable service calls, by whether they ran or shared another's result")
+        .tag("operation", operation)
+        .tag("outcome", outcome)
+        .register(registry);
+  }
+}
@@ -0,0 +1,185 @@
+package org.assessment.devicemanagement.sse;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.assessment.devicemanagement.config.DeviceEventsProperties;
+import org.assessment.devicemanagement.dto.DeviceStateEvent;
+import org.assessment.devicemanagement.event.DeviceChangedEvent;
+import org.assessment.devicemanagement.event.DeviceSnapshot;
+import org.assessment.devicemanagement.model.DeviceState;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Fans committed state transitions out to SSE subscribers. The committing thread only appends to
+ * each matching subscriber's bounded buffer; writes to the socket happen on a virtual thread per
+ * subscriber, so a slow client delays nobody else. A full buffer drops its oldest event, which
+ * bounds memory per subscriber regardless of how far behind the client is.
+ *
+ * <p>Dropped events are counted as {@code devices.events.dropped}, open streams as
+ * {@code devices.events.subscribers}.
+ */
+@Slf4j
+@Component
+public class DeviceStateEventStream {
+
+  static final String EVENT_NAME = "state-changed";
+
+  private final DeviceEventsProperties properties;
+  private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+  private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+  private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(
+      Thread.ofPlatform().name("device-events-heartbeat").daemon().factory());
+  private final Counter dropped;
+
+  public DeviceStateEventStream(DeviceEventsProperties properties, MeterRegistry registry) {
+    this.properties = properties;
+    this.dropped = Counter.builder("devices.events.dropped")
+        .description("State events dropped because a subscriber's buffer was full")
+        .register(registry);
+    Gauge.builder("devices.events.subscribers", subscribers, Set::size)
+        .description("Open device state event streams")
+        .register(registry);
+    long heartbeat = properties.heartbeat().toMillis();
+    heartbeats.scheduleWithFixedDelay(this::heartbeat, heartbeat, heartbeat,
+        TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Opens a stream of state transitions, optionally restricted to one brand (case-insensitive)
+   * and/or to transitions into or out of one state.
+   */
+  public SseEmitter subscribe(String brand, DeviceState state) {
+    SseEmitter emitter = new SseEmitter(properties.timeout().toMillis());
+    Subscriber subscriber = new Subscriber(emitter, brand, state, properties.bufferSize());
+    emitter.onCompletion(() -> subscribers.remove(subscriber));
+    emitter.onTimeout(() -> subscribers.remove(subscriber));
+    emitter.onError(e -> subscribers.remove(subscriber));
+    subscribers.add(subscriber);
+    return emitter;
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onDeviceChanged(DeviceChangedEvent event) {
+    if (!event.isStateTransition() || subscribers.isEmpty()) {
+      return;
+    }
+    DeviceSnapshot device = event.device();
+    DeviceStateEvent payload = new DeviceStateEvent(device.id().toString(), device.name(),
+        device.brand(), event.previous().state(), device.state(), device.version(),
+        Instant.now());
+    for (Subscriber subscriber : subscribers) {
+      if (subscriber.matches(payload)) {
+        subscriber.offer(payload);
+      }
+    }
+  }
+
+  @PreDestroy
+  void stop() {
+    heartbeats.shutdownNow();
+    subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    senders.shutdown();
+  }
+
+  private void heartbeat() {
+    // Sent from the virtual senders too: a stalled socket must not hold up the other heartbeats
+    for (Subscriber subscriber : subscribers) {
+      senders.execute(() -> subscriber.send(SseEmitter.event().comment("keep-alive")));
+    }
+  }
+
+  private final class Subscriber {
+
+    private final SseEmitter emitter;
+    private final String brand;
+    private final DeviceState state;
+    private final int capacity;
+    private final ArrayDeque<DeviceStateEvent> buffer;
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    Subscriber(SseEmitter emitter, String brand, DeviceState state, int capacity) {
+      this.emitter = emitter;
+      this.brand = brand;
+      this.state = state;
+      this.capacity = capacity;
+      this.buffer = new ArrayDeque<>(capacity);
+    }
+
+    boolean matches(DeviceStateEvent event) {
+      return (brand == null || brand.equalsIgnoreCase(event.brand()))
+          && (state == null || state == event.from() || state == event.to());
+    }
+
+    void offer(DeviceStateEvent event) {
+      synchronized (buffer) {
+        if (buffer.size() == capacity) {
+          buffer.pollFirst();
+          dropped.increment();
+        }
+        buffer.addLast(event);
+      }
+      if (draining.compareAndSet(false, true)) {
+        senders.execute(this::drain);
+      }
+    }
+
+    private void drain() {
+      try {
+        DeviceStateEvent next;
+        while ((next = poll()) != null) {
+          if (!send(SseEmitter.event().id(next.id() + ":" + next.version())
+              .name(EVENT_NAME).data(next))) {
+            return;
+          }
+        }
+      } finally {
+        draining.set(false);
+      }
+      // An event may have been offered after the last poll but before the flag was cleared
+      if (!isEmpty() && draining.compareAndSet(false, true)) {
+        senders.execute(this::drain);
+      }
+    }
+
+    private DeviceStateEvent poll() {
+      synchronized (buffer) {
+        return buffer.pollFirst();
+      }
+    }
+
+    private boolean isEmpty() {
+      synchronized (buffer) {
+        return buffer.isEmpty();
+      }
+    }
+
+    // SseEmitter serializes sends internally, so heartbeats and drains may interleave safely
+    boolean send(SseEmitter.SseEventBuilder event) {
+      try {
+        emitter.send(event);
+        return true;
+      } catch (IOException | IllegalStateException e) {
+        // Client went away (or the emitter already completed); stop tracking it
+        subscribers.remove(this);
+        emitter.completeWithError(e);
+        return false;
+      }
+    }
+  }
+}
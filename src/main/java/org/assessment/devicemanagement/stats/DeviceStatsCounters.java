@@ -0,0 +1,127 @@
+package org.assessment.devicemanagement.stats;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.assessment.devicemanagement.config.StatsProperties;
+import org.assessment.devicemanagement.datasource.ReadRouting;
+import org.assessment.devicemanagement.event.DeviceChangedEvent;
+import org.assessment.devicemanagement.event.DeviceSnapshot;
+import org.assessment.devicemanagement.model.DeviceState;
+import org.assessment.devicemanagement.model.DeviceStats;
+import org.assessment.devicemanagement.repository.DeviceRepository;
+import org.assessment.devicemanagement.repository.DeviceRepository.BrandStateCount;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * In-memory device counts per (lower-cased) brand and state. Committed writes on this instance
+ * adjust the counters as they happen; a periodic {@code GROUP BY} replaces them wholesale, which
+ * folds in other instances' writes and repairs any drift. Reading the stats therefore costs one
+ * pass over the brand × state groups, never a table scan.
+ */
+@Slf4j
+@Component
+public class DeviceStatsCounters {
+
+  private final DeviceRepository repo;
+  private final StatsProperties properties;
+  private final ScheduledExecutorService reconciler = Executors.newSingleThreadScheduledExecutor(
+      Thread.ofPlatform().name("device-stats-reconcile").daemon().factory());
+  private volatile Map<GroupKey, LongAdder> counts = new ConcurrentHashMap<>();
+  private volatile Instant reconciledAt;
+
+  public DeviceStatsCounters(DeviceRepository repo, StatsProperties properties) {
+    this.repo = repo;
+    this.properties = properties;
+  }
+
+  @PostConstruct
+  void start() {
+    long interval = properties.reconcileInterval().toMillis();
+    reconciler.scheduleWithFixedDelay(this::reconcileQuietly, 0, interval, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  void stop() {
+    reconciler.shutdownNow();
+  }
+
+  public DeviceStats snapshot() {
+    Map<String, Map<DeviceState, Long>> byBrand = new TreeMap<>();
+    Map<DeviceState, Long> byState = new EnumMap<>(DeviceState.class);
+    long total = 0;
+    for (Map.Entry<GroupKey, LongAdder> entry : counts.entrySet()) {
+      long count = entry.getValue().sum();
+      if (count <= 0) {
+        continue;
+      }
+      GroupKey key = entry.getKey();
+      byBrand.computeIfAbsent(key.brand(), b -> new EnumMap<>(DeviceState.class))
+          .put(key.state(), count);
+      byState.merge(key.state(), count, Long::sum);
+      total += count;
+    }
+    return new DeviceStats(total, byBrand, byState, reconciledAt);
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onDeviceChanged(DeviceChangedEvent event) {
+    DeviceSnapshot previous = event.previous();
+    DeviceSnapshot current = event.device();
+    Map<GroupKey, LongAdder> target = counts;
+    if (previous != null && current != null
+        && GroupKey.of(previous).equals(GroupKey.of(current))) {
+      return;
+    }
+    if (previous != null) {
+      target.computeIfAbsent(GroupKey.of(previous), k -> new LongAdder()).decrement();
+    }
+    if (current != null) {
+      target.computeIfAbsent(GroupKey.of(current), k -> new LongAdder()).increment();
+    }
+  }
+
+  /**
+   * Replaces the counters with the database's. Changes committed while the query runs may be
+   * counted twice or not at all until the next run. Reads the primary: replica lag would be
+   * kept in the counters until the next run.
+   */
+  void reconcile() {
+    Map<GroupKey, LongAdder> fresh = new ConcurrentHashMap<>();
+    for (BrandStateCount row : ReadRouting.onPrimary(repo::countByBrandAndState)) {
+      LongAdder adder = new LongAdder();
+      adder.add(row.getCount());
+      fresh.put(new GroupKey(row.getBrand(), row.getState()), adder);
+    }
+    counts = fresh;
+    reconciledAt = Instant.now();
+  }
+
+  private void reconcileQuietly() {
+    try {
+      reconcile();
+    } catch (RuntimeException e) {
+      log.warn("Could not reconcile device statistics; keeping incremental counts", e);
+    }
+  }
+
+  private record GroupKey(String brand, DeviceState state) {
+
+    // Same grouping as brand_normalized = lower(brand)
+    static GroupKey of(DeviceSnapshot device) {
+      return new GroupKey(device.brand().toLowerCase(Locale.ROOT), device.state());
+    }
+  }
+}
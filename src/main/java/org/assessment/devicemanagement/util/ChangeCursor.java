@@ -0,0 +1,53 @@
+package org.assessment.devicemanagement.util;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import org.assessment.devicemanagement.exception.InvalidParameterException;
+
+/**
+ * Position in the (tx_id, seq) ordering of the device change log.
+ */
+public record ChangeCursor(long txId, long seq) implements Comparable<ChangeCursor> {
+
+  /**
+   * Before every change.
+   */
+  public static final ChangeCursor START = new ChangeCursor(0, 0);
+
+  private static final int TOKEN_BYTES = 2 * Long.BYTES;
+
+  @Override
+  public int compareTo(ChangeCursor other) {
+    int byTx = Long.compare(txId, other.txId);
+    return byTx != 0 ? byTx : Long.compare(seq, other.seq);
+  }
+
+  public String encode() {
+    ByteBuffer buf = ByteBuffer.allocate(TOKEN_BYTES).putLong(txId).putLong(seq);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(buf.array());
+  }
+
+  /**
+   * Returns {@link #START} for a missing token.
+   */
+  public static ChangeCursor decode(String token) {
+    if (token == null || token.isBlank()) {
+      return START;
+    }
+    try {
+      byte[] raw = Base64.getUrlDecoder().decode(token);
+      if (raw.length != TOKEN_BYTES) {
+        throw new InvalidParameterException("since");
+      }
+      ByteBuffer buf = ByteBuffer.wrap(raw);
+      ChangeCursor cursor = new ChangeCursor(buf.getLong(), buf.getLong());
+      if (cursor.compareTo(START) < 0) {
+        throw new InvalidParameterException("since");
+      }
+      return cursor;
+    } catch (IllegalArgumentException | BufferUnderflowException e) {
+      throw new InvalidParameterException("since");
+    }
+  }
+}
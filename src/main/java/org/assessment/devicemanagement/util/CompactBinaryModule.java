@@ -0,0 +1,81 @@
+package org.assessment.devicemanagement.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compact encodings for the binary (CBOR) wire format, registered only on the CBOR mapper so JSON
+ * output is unchanged:
+ * <ul>
+ *   <li>{@code id} properties holding a UUID string are written as 16-byte byte strings;</li>
+ *   <li>{@link Instant}s are written as integer microseconds since the epoch.</li>
+ * </ul>
+ */
+public class CompactBinaryModule extends SimpleModule {
+
+  public CompactBinaryModule() {
+    super("CompactBinaryModule");
+    addSerializer(Instant.class, new EpochMicrosSerializer());
+    setSerializerModifier(new BeanSerializerModifier() {
+      @Override
+      public List<BeanPropertyWriter> changeProperties(SerializationConfig config,
+          BeanDescription beanDesc, List<BeanPropertyWriter> properties) {
+        for (BeanPropertyWriter property : properties) {
+          if (property.getName().equals("id") && property.getType().hasRawClass(String.class)) {
+            property.assignSerializer(new UuidStringAsBytesSerializer());
+          }
+        }
+        return properties;
+      }
+    });
+  }
+
+  static final class EpochMicrosSerializer extends StdSerializer<Instant> {
+
+    EpochMicrosSerializer() {
+      super(Instant.class);
+    }
+
+    @Override
+    public void serialize(Instant value, JsonGenerator gen, SerializerProvider provider)
+        throws IOException {
+      gen.writeNumber(ChronoUnit.MICROS.between(Instant.EPOCH, value));
+    }
+  }
+
+  static final class UuidStringAsBytesSerializer extends StdSerializer<String> {
+
+    UuidStringAsBytesSerializer() {
+      super(String.class);
+    }
+
+    @Override
+    public void serialize(String value, JsonGenerator gen, SerializerProvider provider)
+        throws IOException {
+      UUID uuid;
+      try {
+        uuid = UUID.fromString(value);
+      } catch (IllegalArgumentException e) {
+        gen.writeString(value);
+        return;
+      }
+      byte[] bytes = ByteBuffer.allocate(16)
+          .putLong(uuid.getMostSignificantBits())
+          .putLong(uuid.getLeastSignificantBits())
+          .array();
+      gen.writeBinary(bytes);
+    }
+  }
+}
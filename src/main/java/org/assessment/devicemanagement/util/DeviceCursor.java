@@ -0,0 +1,56 @@
+package org.assessment.devicemanagement.util;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+import org.assessment.devicemanagement.exception.InvalidParameterException;
+import org.assessment.devicemanagement.model.Device;
+
+/**
+ * Position in the (createdAt, id) ordering used for keyset pagination. Clients only ever see the
+ * opaque, URL-safe token produced by {@link #encode()}.
+ */
+public record DeviceCursor(Instant createdAt, UUID id) {
+
+  /** Sorts before every persisted device. */
+  public static final DeviceCursor START = new DeviceCursor(Instant.EPOCH, new UUID(0L, 0L));
+
+  private static final int TOKEN_BYTES = Long.BYTES + Integer.BYTES + 2 * Long.BYTES;
+
+  public static DeviceCursor of(Device device) {
+    return new DeviceCursor(device.getCreatedAt(), device.getId());
+  }
+
+  public String encode() {
+    ByteBuffer buf = ByteBuffer.allocate(TOKEN_BYTES)
+        .putLong(createdAt.getEpochSecond())
+        .putInt(createdAt.getNano())
+        .putLong(id.getMostSignificantBits())
+        .putLong(id.getLeastSignificantBits());
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(buf.array());
+  }
+
+  /**
+   * Returns {@code null} for a missing token (first page).
+   */
+  public static DeviceCursor decode(String token) {
+    if (token == null || token.isBlank()) {
+      return null;
+    }
+    try {
+      byte[] raw = Base64.getUrlDecoder().decode(token);
+      if (raw.length != TOKEN_BYTES) {
+        throw new InvalidParameterException("cursor");
+      }
+      ByteBuffer buf = ByteBuffer.wrap(raw);
+      Instant createdAt = Instant.ofEpochSecond(buf.getLong(), buf.getInt());
+      return new DeviceCursor(createdAt, new UUID(buf.getLong(), buf.getLong()));
+    } catch (IllegalArgumentException | BufferUnderflowException | DateTimeException e) {
+      throw new InvalidParameterException("cursor");
+    }
+  }
+
+}
@@ -0,0 +1,116 @@
+package org.assessment.devicemanagement.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import org.assessment.devicemanagement.model.Device;
+import org.assessment.devicemanagement.model.DeviceState;
+
+/**
+ * Writes a {@link Device} straight to a JSON generator, producing exactly the bytes Jackson
+ * writes for {@code DeviceMapper.toResponse(device)} with the application's mapper, but without
+ * the intermediate {@code DeviceResponse}, the {@code UUID.toString()} string or bean
+ * introspection. Field names and state names are pre-encoded, and the id and timestamp are
+ * formatted into reusable buffers.
+ *
+ * <p>Instances hold those buffers and are not thread-safe; use one per response.
+ */
+public final class DeviceJsonWriter {
+
+  private static final SerializableString ID = new SerializedString("id");
+  private static final SerializableString NAME = new SerializedString("name");
+  private static final SerializableString BRAND = new SerializedString("brand");
+  private static final SerializableString STATE = new SerializedString("state");
+  private static final SerializableString CREATED_AT = new SerializedString("createdAt");
+  private static final SerializableString VERSION = new SerializedString("version");
+
+  private static final Map<DeviceState, SerializableString> STATE_NAMES =
+      new EnumMap<>(DeviceState.class);
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  static {
+    for (DeviceState state : DeviceState.values()) {
+      STATE_NAMES.put(state, new SerializedString(state.name()));
+    }
+  }
+
+  private final char[] uuid = new char[36];
+  private final StringBuilder timestamp = new StringBuilder(32);
+  private char[] timestampChars = new char[32];
+
+  public void write(JsonGenerator gen, Device device) throws IOException {
+    gen.writeStartObject();
+
+    gen.writeFieldName(ID);
+    if (device.getId() != null) {
+      formatUuid(device.getId());
+      gen.writeString(uuid, 0, uuid.length);
+    } else {
+      gen.writeNull();
+    }
+
+    gen.writeFieldName(NAME);
+    gen.writeString(device.getName());
+    gen.writeFieldName(BRAND);
+    gen.writeString(device.getBrand());
+
+    gen.writeFieldName(STATE);
+    if (device.getState() != null) {
+      gen.writeString(STATE_NAMES.get(device.getState()));
+    } else {
+      gen.writeNull();
+    }
+
+    gen.writeFieldName(CREATED_AT);
+    if (device.getCreatedAt() != null) {
+      writeInstant(gen, device.getCreatedAt());
+    } else {
+      gen.writeNull();
+    }
+
+    gen.writeFieldName(VERSION);
+    gen.writeNumber(device.getVersion());
+
+    gen.writeEndObject();
+  }
+
+  // Same text as InstantSerializer (ISO_INSTANT) with WRITE_DATES_AS_TIMESTAMPS disabled
+  private void writeInstant(JsonGenerator gen, Instant value) throws IOException {
+    timestamp.setLength(0);
+    DateTimeFormatter.ISO_INSTANT.formatTo(value, timestamp);
+    int length = timestamp.length();
+    if (length > timestampChars.length) {
+      timestampChars = new char[length];
+    }
+    timestamp.getChars(0, length, timestampChars, 0);
+    gen.writeString(timestampChars, 0, length);
+  }
+
+  // Canonical 8-4-4-4-12 lower-case form, as UUID.toString()
+  private void formatUuid(UUID id) {
+    long msb = id.getMostSignificantBits();
+    long lsb = id.getLeastSignificantBits();
+    hex(msb >>> 32, 8, 0);
+    uuid[8] = '-';
+    hex(msb >>> 16, 4, 9);
+    uuid[13] = '-';
+    hex(msb, 4, 14);
+    uuid[18] = '-';
+    hex(lsb >>> 48, 4, 19);
+    uuid[23] = '-';
+    hex(lsb, 12, 24);
+  }
+
+  private void hex(long value, int digits, int offset) {
+    for (int i = offset + digits - 1; i >= offset; i--) {
+      uuid[i] = HEX[(int) (value & 0xF)];
+      value >>>= 4;
+    }
+  }
+}
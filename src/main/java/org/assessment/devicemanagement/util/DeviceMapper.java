@@ -1,7 +1,11 @@
 package org.assessment.devicemanagement.util;
 
+import java.util.Set;
 import org.assessment.devicemanagement.dto.DeviceResponse;
+import org.assessment.devicemanagement.dto.DeviceViewResponse;
 import org.assessment.devicemanagement.model.Device;
+import org.assessment.devicemanagement.model.DeviceField;
+import org.assessment.devicemanagement.model.DeviceView;
 
 public class DeviceMapper {
 
@@ -12,7 +16,23 @@ public class DeviceMapper {
         device.getName(),
         device.getBrand(),
         device.getState(),
-        device.getCreatedAt()
+        device.getCreatedAt(),
+        device.getVersion()
+    );
+  }
+
+  /**
+   * Maps only the requested fields; the rest stay {@code null} and are left out of the JSON
+   * (the view may carry extra keyset columns).
+   */
+  public static DeviceViewResponse toViewResponse(DeviceView view, Set<DeviceField> fields) {
+    return new DeviceViewResponse(
+        fields.contains(DeviceField.ID) ? view.id().toString() : null,
+        fields.contains(DeviceField.NAME) ? view.name() : null,
+        fields.contains(DeviceField.BRAND) ? view.brand() : null,
+        fields.contains(DeviceField.STATE) ? view.state() : null,
+        fields.contains(DeviceField.CREATED_AT) ? view.createdAt() : null,
+        fields.contains(DeviceField.VERSION) ? view.version() : null
     );
   }
 
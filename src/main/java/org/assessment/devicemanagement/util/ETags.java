@@ -0,0 +1,41 @@
+package org.assessment.devicemanagement.util;
+
+import org.assessment.devicemanagement.exception.PreconditionFailedException;
+import org.assessment.devicemanagement.model.Device;
+
+/**
+ * Device ETags are the quoted entity version, e.g. {@code "3"}.
+ */
+public final class ETags {
+
+  private ETags() {
+  }
+
+  public static String of(Device device) {
+    return of(device.getVersion());
+  }
+
+  public static String of(long version) {
+    return "\"" + version + "\"";
+  }
+
+  /**
+   * Reads the version a client expects from an {@code If-Match} header. Returns {@code null} when
+   * the header is absent or {@code *} (any current version is fine).
+   */
+  public static Long parseIfMatch(String ifMatch) {
+    if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+      return null;
+    }
+    String tag = ifMatch.trim();
+    // If-Match uses strong comparison, so weak tags (W/"..") can never match
+    if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+      throw new PreconditionFailedException("If-Match does not match the current ETag.");
+    }
+    try {
+      return Long.parseLong(tag.substring(1, tag.length() - 1));
+    } catch (NumberFormatException e) {
+      throw new PreconditionFailedException("If-Match does not match the current ETag.");
+    }
+  }
+}
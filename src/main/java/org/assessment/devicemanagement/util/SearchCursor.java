@@ -0,0 +1,43 @@
+package org.assessment.devicemanagement.util;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.UUID;
+import org.assessment.devicemanagement.exception.InvalidParameterException;
+
+/**
+ * Position in the (rank desc, id) ordering of search results. The rank is carried bit for bit,
+ * so the next page compares against exactly the value Postgres computed.
+ */
+public record SearchCursor(float rank, UUID id) {
+
+  private static final int TOKEN_BYTES = Integer.BYTES + 2 * Long.BYTES;
+
+  public String encode() {
+    ByteBuffer buf = ByteBuffer.allocate(TOKEN_BYTES)
+        .putFloat(rank)
+        .putLong(id.getMostSignificantBits())
+        .putLong(id.getLeastSignificantBits());
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(buf.array());
+  }
+
+  /**
+   * Returns {@code null} for a missing token (first page).
+   */
+  public static SearchCursor decode(String token) {
+    if (token == null || token.isBlank()) {
+      return null;
+    }
+    try {
+      byte[] raw = Base64.getUrlDecoder().decode(token);
+      if (raw.length != TOKEN_BYTES) {
+        throw new InvalidParameterException("cursor");
+      }
+      ByteBuffer buf = ByteBuffer.wrap(raw);
+      return new SearchCursor(buf.getFloat(), new UUID(buf.getLong(), buf.getLong()));
+    } catch (IllegalArgumentException | BufferUnderflowException e) {
+      throw new InvalidParameterException("cursor");
+    }
+  }
+}
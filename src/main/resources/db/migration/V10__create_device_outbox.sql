@@ -0,0 +1,11 @@
+-- Transactional outbox: one row per device mutation, inserted in the writing transaction and
+-- deleted once OutboxPublisher has handed it to the sink. Publishers claim the oldest rows
+-- through the primary key with FOR UPDATE SKIP LOCKED, so several workers (and instances)
+-- drain it in parallel without waiting on each other.
+CREATE TABLE device_outbox (
+    id         BIGSERIAL   PRIMARY KEY,
+    device_id  UUID        NOT NULL,
+    event_type VARCHAR(16) NOT NULL,
+    payload    JSONB       NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
@@ -0,0 +1,12 @@
+-- Replaces the global append lock: each change records the transaction that wrote it, and readers
+-- only return changes of transactions older than the oldest one still running (see
+-- DeviceChangeRepository), ordered by (tx_id, seq). Existing rows were written under the lock,
+-- so seq order is their commit order; tx_id 0 keeps them first, in that order.
+ALTER TABLE device_changes
+    ADD COLUMN tx_id BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE device_changes
+    ALTER COLUMN tx_id SET DEFAULT pg_current_xact_id()::text::bigint;
+
+CREATE INDEX idx_device_changes_tx_id_seq ON device_changes (tx_id, seq);
+-- Retention deletes the oldest changes first
+CREATE INDEX idx_device_changes_changed_at ON device_changes (changed_at);
@@ -0,0 +1,10 @@
+-- Idempotency keys are chosen by clients, so two clients can pick the same one; scope them by
+-- client (see ClientIdentity) so neither can replay or block the other's request. Keys stored
+-- before this get an empty client that no request has and simply expire.
+ALTER TABLE idempotency_keys
+    ADD COLUMN client_id VARCHAR(255) NOT NULL DEFAULT '';
+ALTER TABLE idempotency_keys
+    ALTER COLUMN client_id DROP DEFAULT;
+
+ALTER TABLE idempotency_keys DROP CONSTRAINT idempotency_keys_pkey;
+ALTER TABLE idempotency_keys ADD PRIMARY KEY (client_id, idempotency_key);
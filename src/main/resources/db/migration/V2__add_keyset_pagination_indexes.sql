@@ -0,0 +1,7 @@
+-- Keyset pagination walks devices in (created_at, id) order; these indexes let
+-- every page be served by a bounded index range scan instead of a sort.
+CREATE INDEX idx_devices_created_at_id ON devices (created_at, id);
+CREATE INDEX idx_devices_state_created_at_id ON devices (state, created_at, id);
+
+-- Superseded by idx_devices_state_created_at_id (same leading column).
+DROP INDEX idx_devices_state;
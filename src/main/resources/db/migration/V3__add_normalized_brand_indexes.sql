@@ -0,0 +1,10 @@
+-- Case-insensitive brand filters compare lower(brand); a stored generated column
+-- lets plain B-tree indexes serve them (idx_devices_brand on the raw value never could).
+ALTER TABLE devices
+    ADD COLUMN brand_normalized VARCHAR(255) GENERATED ALWAYS AS (lower(brand)) STORED;
+
+-- created_at, id trail the filter columns so keyset pages stay index-ordered.
+CREATE INDEX idx_devices_brand_normalized ON devices (brand_normalized, created_at, id);
+CREATE INDEX idx_devices_brand_normalized_state ON devices (brand_normalized, state, created_at, id);
+
+DROP INDEX idx_devices_brand;
@@ -0,0 +1,2 @@
+-- Optimistic concurrency: bumped by every write, exposed to clients as the ETag.
+ALTER TABLE devices ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,12 @@
+-- Append-only change log backing GET /v1/devices/changes. Rows are written in the same
+-- transaction as the device write; seq order equals commit order (see DeviceChangeRepository).
+CREATE TABLE device_changes (
+    seq         BIGSERIAL PRIMARY KEY,
+    device_id   UUID        NOT NULL,
+    change_type VARCHAR(16) NOT NULL,
+    name        VARCHAR(255),
+    brand       VARCHAR(255),
+    state       VARCHAR(32),
+    version     BIGINT,
+    changed_at  TIMESTAMPTZ NOT NULL DEFAULT now()
+);
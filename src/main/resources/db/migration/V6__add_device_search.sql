@@ -0,0 +1,10 @@
+-- Full-text search over name and brand. The 'simple' configuration only lower-cases (no
+-- stemming or stop words), which suits model names such as "MacBook Pro 14"; name terms
+-- weigh more than brand terms in ts_rank. GIN also serves the prefix (term:*) queries.
+ALTER TABLE devices
+    ADD COLUMN search_vector TSVECTOR GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple'::regconfig, name), 'A')
+            || setweight(to_tsvector('simple'::regconfig, brand), 'B')
+    ) STORED;
+
+CREATE INDEX idx_devices_search_vector ON devices USING GIN (search_vector);
@@ -0,0 +1,4 @@
+-- Filtered lists (brand/state IN lists, createdAt ranges) are served by the existing
+-- (brand_normalized[, state], created_at, id), (state, created_at, id) and (created_at, id)
+-- indexes. sort=name / sort=-name had no index and sorted the whole result; walk this instead.
+CREATE INDEX idx_devices_name_id ON devices (name, id);
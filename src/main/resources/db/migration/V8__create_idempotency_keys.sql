@@ -0,0 +1,12 @@
+-- Idempotency-Key claims for POST /v1/devices. The claim row is inserted in the same
+-- transaction as the device, so a committed key always carries its response.
+CREATE TABLE idempotency_keys (
+    idempotency_key VARCHAR(255) PRIMARY KEY,
+    request_hash    CHAR(64)     NOT NULL,
+    device_id       UUID,
+    response        TEXT,
+    created_at      TIMESTAMPTZ  NOT NULL DEFAULT now()
+);
+
+-- Expiry sweeps delete by age.
+CREATE INDEX idx_idempotency_keys_created_at ON idempotency_keys (created_at);
@@ -0,0 +1,97 @@
+-- devices becomes LIST-partitioned on an archived flag: devices_hot holds everything the API
+-- works with, devices_archived the devices DeviceArchiver moved out after a long INACTIVE spell.
+-- Default lists, filters and the INACTIVE sweep then only touch the hot partition and its
+-- (smaller) indexes. Any write to an archived device moves it back (the application sets
+-- archived = false on every update; Postgres moves the row between partitions).
+--
+-- The bulk copy and the index builds run while the old table stays readable and writable. Only
+-- the final catch-up with rows written meanwhile, and the swap, block writers.
+CREATE TABLE devices_partitioned (
+    id               UUID         NOT NULL,
+    name             VARCHAR(255) NOT NULL,
+    brand            VARCHAR(255) NOT NULL,
+    state            VARCHAR(32)  NOT NULL,
+    created_at       TIMESTAMPTZ  NOT NULL,
+    brand_normalized VARCHAR(255) GENERATED ALWAYS AS (lower(brand)) STORED,
+    version          BIGINT       NOT NULL DEFAULT 0,
+    search_vector    TSVECTOR GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple'::regconfig, name), 'A')
+            || setweight(to_tsvector('simple'::regconfig, brand), 'B')
+    ) STORED,
+    archived         BOOLEAN      NOT NULL DEFAULT false,
+    -- When state last changed; the archival sweep looks for long-INACTIVE devices
+    state_changed_at TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    -- Postgres only enforces keys that include the partition key, so this key alone doesn't keep
+    -- id unique across partitions. It stays unique because ids are random UUIDs generated by the
+    -- service (never taken from a client), the key makes id unique within each partition, and a
+    -- row only reaches devices_archived by an UPDATE that moves it, removing it from devices_hot
+    -- in the same statement. Don't insert into devices_archived directly.
+    PRIMARY KEY (id, archived)
+) PARTITION BY LIST (archived);
+
+CREATE TABLE devices_hot PARTITION OF devices_partitioned FOR VALUES IN (false);
+CREATE TABLE devices_archived PARTITION OF devices_partitioned FOR VALUES IN (true);
+
+-- No state history exists yet; creation time is the best lower bound.
+INSERT INTO devices_partitioned (id, name, brand, state, created_at, version, state_changed_at)
+SELECT id, name, brand, state, created_at, version, created_at
+FROM devices;
+
+-- The previous indexes, per partition. Index names keep their old prefix so plans stay
+-- recognisable (idx_devices_created_at_id_hot, idx_devices_created_at_id_archived, ...).
+CREATE INDEX idx_devices_created_at_id_hot ON devices_hot (created_at, id);
+CREATE INDEX idx_devices_created_at_id_archived ON devices_archived (created_at, id);
+CREATE INDEX idx_devices_state_created_at_id_hot ON devices_hot (state, created_at, id);
+CREATE INDEX idx_devices_state_created_at_id_archived
+    ON devices_archived (state, created_at, id);
+CREATE INDEX idx_devices_brand_normalized_hot
+    ON devices_hot (brand_normalized, created_at, id);
+CREATE INDEX idx_devices_brand_normalized_archived
+    ON devices_archived (brand_normalized, created_at, id);
+CREATE INDEX idx_devices_brand_normalized_state_hot
+    ON devices_hot (brand_normalized, state, created_at, id);
+CREATE INDEX idx_devices_brand_normalized_state_archived
+    ON devices_archived (brand_normalized, state, created_at, id);
+CREATE INDEX idx_devices_name_id_hot ON devices_hot (name, id);
+CREATE INDEX idx_devices_name_id_archived ON devices_archived (name, id);
+CREATE INDEX idx_devices_search_vector_hot ON devices_hot USING GIN (search_vector);
+CREATE INDEX idx_devices_search_vector_archived ON devices_archived USING GIN (search_vector);
+
+-- Archival candidates: small, since only INACTIVE hot devices are in it.
+CREATE INDEX idx_devices_hot_inactive_since ON devices_hot (state_changed_at)
+    WHERE state = 'INACTIVE';
+
+CREATE FUNCTION devices_touch_state_changed_at() RETURNS trigger AS $$
+BEGIN
+    NEW.state_changed_at := now();
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Cloned onto both partitions.
+CREATE TRIGGER trg_devices_state_changed_at
+    BEFORE UPDATE OF state ON devices_partitioned
+    FOR EACH ROW
+    WHEN (OLD.state IS DISTINCT FROM NEW.state)
+    EXECUTE FUNCTION devices_touch_state_changed_at();
+
+-- Catch up with writes made since the copy. EXCLUSIVE blocks writers but not readers; every
+-- write bumps version, so only rows whose (id, version) differs are touched.
+LOCK TABLE devices IN EXCLUSIVE MODE;
+
+DELETE FROM devices_partitioned p
+WHERE NOT EXISTS (SELECT 1 FROM devices d WHERE d.id = p.id);
+
+INSERT INTO devices_partitioned (id, name, brand, state, created_at, version, state_changed_at)
+SELECT d.id, d.name, d.brand, d.state, d.created_at, d.version, d.created_at
+FROM devices d
+WHERE NOT EXISTS (
+    SELECT 1 FROM devices_partitioned p WHERE p.id = d.id AND p.version = d.version)
+ON CONFLICT (id, archived) DO UPDATE
+    SET name = EXCLUDED.name, brand = EXCLUDED.brand, state = EXCLUDED.state,
+        version = EXCLUDED.version;
+
+-- The swap itself only needs the lock for a moment.
+DROP TABLE devices;
+ALTER TABLE devices_partitioned RENAME TO devices;
+ALTER TABLE devices RENAME CONSTRAINT devices_partitioned_pkey TO devices_pkey;
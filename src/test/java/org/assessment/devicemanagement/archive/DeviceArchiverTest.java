@@ -0,0 +1,50 @@
+package org.assessment.devicemanagement.archive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import org.assessment.devicemanagement.config.ArchiveProperties;
+import org.assessment.devicemanagement.repository.DeviceArchiveRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class DeviceArchiverTest {
+
+  private final DeviceArchiveRepository repo = mock(DeviceArchiveRepository.class);
+  private final DeviceArchiver archiver = new DeviceArchiver(repo,
+      new ArchiveProperties(true, Duration.ofDays(90), Duration.ofHours(1), 10));
+
+  @Test
+  void archiveInactive_movesFullBatchesUntilAShortOne_withOneCutoff() {
+    when(repo.archiveInactiveBefore(any(), eq(10))).thenReturn(10, 10, 3);
+
+    Instant before = Instant.now().minus(Duration.ofDays(90));
+    assertEquals(23, archiver.archiveInactive());
+    Instant after = Instant.now().minus(Duration.ofDays(90));
+
+    ArgumentCaptor<Instant> cutoffs = ArgumentCaptor.forClass(Instant.class);
+    verify(repo, times(3)).archiveInactiveBefore(cutoffs.capture(), eq(10));
+    assertThat(cutoffs.getAllValues()).containsOnly(cutoffs.getValue());
+    assertThat(cutoffs.getValue()).isBetween(before, after);
+  }
+
+  @Test
+  void run_keepsGoing_whenARunFails() {
+    when(repo.archiveInactiveBefore(any(), eq(10)))
+        .thenThrow(new IllegalStateException("database down"))
+        .thenReturn(0);
+
+    archiver.run();
+    archiver.run();
+
+    verify(repo, times(2)).archiveInactiveBefore(any(), eq(10));
+  }
+}
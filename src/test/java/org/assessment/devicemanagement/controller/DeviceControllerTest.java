@@ -1,37 +1,69 @@
 package org.assessment.devicemanagement.controller;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import java.nio.ByteBuffer;
 import java.time.Instant;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
+import org.assessment.devicemanagement.dto.CreateDeviceRequest;
+import org.assessment.devicemanagement.dto.DeviceResponse;
 import org.assessment.devicemanagement.exception.DomainValidationException;
+import org.assessment.devicemanagement.exception.IdempotencyKeyReusedException;
 import org.assessment.devicemanagement.exception.NotFoundException;
+import org.assessment.devicemanagement.exception.PreconditionFailedException;
+import org.assessment.devicemanagement.idempotency.IdempotentDeviceCreator;
+import org.assessment.devicemanagement.ratelimit.ClientIdentity;
 import org.assessment.devicemanagement.model.Device;
+import org.assessment.devicemanagement.model.DeviceField;
+import org.assessment.devicemanagement.model.DeviceFilter;
+import org.assessment.devicemanagement.model.DevicePage;
+import org.assessment.devicemanagement.model.DeviceSearchPage;
+import org.assessment.devicemanagement.model.DeviceSort;
 import org.assessment.devicemanagement.model.DeviceState;
+import org.assessment.devicemanagement.model.DeviceView;
 import org.assessment.devicemanagement.service.DeviceService;
+import org.assessment.devicemanagement.util.DeviceCursor;
+import org.assessment.devicemanagement.util.SearchCursor;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 @WebMvcTest(DeviceController.class)
 class DeviceControllerTest {
@@ -41,6 +73,12 @@ class DeviceControllerTest {
   @MockitoBean
   private DeviceService service;
 
+  @MockitoBean
+  private IdempotentDeviceCreator idempotentCreator;
+
+  @MockitoBean
+  private ClientIdentity clients;
+
   @Test
   void create_returns201_andBody() throws Exception {
     UUID id = UUID.randomUUID();
@@ -70,6 +108,44 @@ class DeviceControllerTest {
         .andExpect(jsonPath("$.createdAt").exists()); // or $.createdAt depending on your DTO field name
   }
 
+  @Test
+  void create_withIdempotencyKey_returnsStoredResponse_andMarksReplay() throws Exception {
+    CreateDeviceRequest req = new CreateDeviceRequest("iPhone", "Apple", DeviceState.AVAILABLE);
+    DeviceResponse stored = new DeviceResponse(UUID.randomUUID().toString(), "iPhone", "Apple",
+        DeviceState.AVAILABLE, Instant.parse("2025-01-01T00:00:00Z"), 0);
+    when(clients.of(any())).thenReturn("addr:127.0.0.1");
+    when(idempotentCreator.create("addr:127.0.0.1", "retry-1", req))
+        .thenReturn(new IdempotentDeviceCreator.Result(stored, true));
+
+    mvc.perform(post("/v1/devices")
+            .header("Idempotency-Key", "retry-1")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("""
+                {"name":"iPhone","brand":"Apple","state":"AVAILABLE"}
+                """))
+        .andExpect(status().isCreated())
+        .andExpect(header().string("Idempotent-Replayed", "true"))
+        .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+        .andExpect(jsonPath("$.id").value(stored.id()));
+
+    verify(service, never()).create(any());
+  }
+
+  @Test
+  void create_withReusedIdempotencyKey_returns422() throws Exception {
+    when(idempotentCreator.create(any(), eq("retry-1"), any()))
+        .thenThrow(new IdempotencyKeyReusedException("retry-1"));
+
+    mvc.perform(post("/v1/devices")
+            .header("Idempotency-Key", "retry-1")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("""
+                {"name":"iPad","brand":"Apple","state":"AVAILABLE"}
+                """))
+        .andExpect(status().isUnprocessableEntity())
+        .andExpect(jsonPath("$.errorCode").value("IDEMPOTENCY_KEY_REUSED"));
+  }
+
   @Test
   void getById_returns200() throws Exception {
     UUID id = UUID.randomUUID();
@@ -92,25 +168,213 @@ class DeviceControllerTest {
   }
 
   @Test
-  void getAll_withoutFilters_callsServiceWithNulls() throws Exception {
-    when(service.getDevices(null, null)).thenReturn(List.of());
+  void getAll_withoutFilters_callsServiceWithEmptyFilter() throws Exception {
+    when(service.getDevices(DeviceFilter.ALL)).thenReturn(List.of());
 
     mvc.perform(get("/v1/devices"))
         .andExpect(status().isOk());
 
-    verify(service).getDevices(null, null);
+    verify(service).getDevices(DeviceFilter.ALL);
   }
 
   @Test
   void getAll_withBrandAndState_callsServiceWithFilters() throws Exception {
-    when(service.getDevices("Apple", DeviceState.AVAILABLE)).thenReturn(List.of());
+    DeviceFilter filter = DeviceFilter.of("Apple", DeviceState.AVAILABLE);
+    when(service.getDevices(filter)).thenReturn(List.of());
 
     mvc.perform(get("/v1/devices")
             .param("brand", "Apple")
             .param("state", "AVAILABLE"))
         .andExpect(status().isOk());
 
-    verify(service).getDevices("Apple", DeviceState.AVAILABLE);
+    verify(service).getDevices(filter);
+  }
+
+  @Test
+  void getAll_withSeveralBrandsStatesAndRange_passesOneFilter() throws Exception {
+    DeviceFilter filter = new DeviceFilter(Set.of("Apple", "Google"),
+        Set.of(DeviceState.AVAILABLE, DeviceState.INACTIVE),
+        Instant.parse("2025-01-01T00:00:00Z"), Instant.parse("2025-02-01T00:00:00Z"),
+        DeviceSort.CREATED_AT_DESC, true);
+    when(service.getDevices(filter)).thenReturn(List.of());
+
+    mvc.perform(get("/v1/devices")
+            .param("brand", "Apple,Google")
+            .param("state", "AVAILABLE", "INACTIVE")
+            .param("createdFrom", "2025-01-01T00:00:00Z")
+            .param("createdTo", "2025-02-01T00:00:00Z")
+            .param("sort", "-createdAt")
+            .param("includeArchived", "true"))
+        .andExpect(status().isOk());
+
+    verify(service).getDevices(filter);
+  }
+
+  @Test
+  void getAll_withUnknownSort_returns400() throws Exception {
+    mvc.perform(get("/v1/devices").param("sort", "brand"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.errorCode").value("INVALID_PARAMETER"));
+  }
+
+  @Test
+  void getPage_returnsItemsAndNextCursor() throws Exception {
+    UUID id = UUID.randomUUID();
+
+    Device d = new Device();
+    d.setName("Pixel");
+    d.setBrand("Google");
+    d.setState(DeviceState.AVAILABLE);
+    ReflectionTestUtils.setField(d, "id", id);
+    ReflectionTestUtils.setField(d, "createdAt", Instant.parse("2025-01-01T00:00:00Z"));
+
+    DeviceCursor next = DeviceCursor.of(d);
+    when(service.getDevicePage(null, null, null, 50)).thenReturn(new DevicePage(List.of(d), next));
+
+    mvc.perform(get("/v1/devices/page"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items[0].id").value(id.toString()))
+        .andExpect(jsonPath("$.nextCursor").value(next.encode()));
+  }
+
+  @Test
+  void search_returnsRankedItemsAndNextCursor() throws Exception {
+    UUID id = UUID.randomUUID();
+
+    Device d = new Device();
+    d.setName("MacBook Pro 14");
+    d.setBrand("Apple");
+    d.setState(DeviceState.AVAILABLE);
+    ReflectionTestUtils.setField(d, "id", id);
+    ReflectionTestUtils.setField(d, "createdAt", Instant.parse("2025-01-01T00:00:00Z"));
+
+    SearchCursor next = new SearchCursor(0.6f, id);
+    when(service.search("macbook pro 14", null, 20))
+        .thenReturn(new DeviceSearchPage(List.of(d), next));
+
+    mvc.perform(get("/v1/devices/search").param("q", "macbook pro 14"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items[0].id").value(id.toString()))
+        .andExpect(jsonPath("$.items[0].name").value("MacBook Pro 14"))
+        .andExpect(jsonPath("$.nextCursor").value(next.encode()));
+  }
+
+  @Test
+  void getPage_withMalformedCursor_returns400() throws Exception {
+    mvc.perform(get("/v1/devices/page").param("cursor", "not-a-cursor"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.errorCode").value("INVALID_PARAMETER"));
+  }
+
+  @Test
+  void getAll_withFields_returnsOnlySelectedFields() throws Exception {
+    UUID id = UUID.randomUUID();
+    Set<DeviceField> fields = EnumSet.of(DeviceField.ID, DeviceField.STATE);
+    DeviceFilter filter = new DeviceFilter(Set.of("Apple", "Google"), null, null, null,
+        DeviceSort.NAME, false);
+    when(service.getDeviceViews(filter, fields)).thenReturn(List.of(
+        new DeviceView(id, null, null, DeviceState.IN_USE, null, null)));
+
+    mvc.perform(get("/v1/devices").param("brand", "Apple", "Google").param("sort", "name")
+            .param("fields", "id, state"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].id").value(id.toString()))
+        .andExpect(jsonPath("$[0].state").value("IN_USE"))
+        .andExpect(jsonPath("$[0].name").doesNotExist())
+        .andExpect(jsonPath("$[0].version").doesNotExist());
+  }
+
+  @Test
+  void getById_withAcceptCbor_writesBinaryUuidAndEpochMicros() throws Exception {
+    UUID id = UUID.randomUUID();
+
+    Device d = new Device();
+    d.setName("Pixel");
+    d.setBrand("Google");
+    d.setState(DeviceState.AVAILABLE);
+    ReflectionTestUtils.setField(d, "id", id);
+    ReflectionTestUtils.setField(d, "createdAt", Instant.parse("2025-01-01T00:00:00.000123Z"));
+
+    when(service.get(id)).thenReturn(d);
+
+    byte[] body = mvc.perform(get("/v1/devices/{id}", id).accept(MediaType.APPLICATION_CBOR))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+        .andReturn().getResponse().getContentAsByteArray();
+
+    JsonNode node = new CBORMapper().readTree(body);
+    ByteBuffer uuid = ByteBuffer.wrap(node.get("id").binaryValue());
+    assertEquals(id, new UUID(uuid.getLong(), uuid.getLong()));
+    assertEquals(1_735_689_600_000_123L, node.get("createdAt").longValue());
+    assertEquals("Pixel", node.get("name").textValue());
+  }
+
+  @Test
+  void export_withAcceptCborSeq_writesConcatenatedCborItems() throws Exception {
+    Device d = new Device();
+    d.setName("Pixel");
+    d.setBrand("Google");
+    d.setState(DeviceState.AVAILABLE);
+    ReflectionTestUtils.setField(d, "id", UUID.randomUUID());
+    ReflectionTestUtils.setField(d, "createdAt", Instant.parse("2025-01-01T00:00:00Z"));
+
+    doAnswer(inv -> {
+      Consumer<Device> action = inv.getArgument(2);
+      action.accept(d);
+      action.accept(d);
+      return null;
+    }).when(service).exportDevices(isNull(), isNull(), any());
+
+    MvcResult started = mvc.perform(get("/v1/devices/export").accept("application/cbor-seq"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    byte[] body = mvc.perform(asyncDispatch(started))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith("application/cbor-seq"))
+        .andReturn().getResponse().getContentAsByteArray();
+
+    try (MappingIterator<JsonNode> items = new CBORMapper().readerFor(JsonNode.class)
+        .readValues(body)) {
+      assertEquals(2, items.readAll().size());
+    }
+  }
+
+  @Test
+  void getAll_withUnknownField_returns400() throws Exception {
+    mvc.perform(get("/v1/devices").param("fields", "id,serial"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.errorCode").value("INVALID_PARAMETER"));
+  }
+
+  @Test
+  void export_streamsOneJsonObjectPerLine() throws Exception {
+    UUID id = UUID.randomUUID();
+
+    Device d = new Device();
+    d.setName("Pixel");
+    d.setBrand("Google");
+    d.setState(DeviceState.AVAILABLE);
+    ReflectionTestUtils.setField(d, "id", id);
+    ReflectionTestUtils.setField(d, "createdAt", Instant.parse("2025-01-01T00:00:00Z"));
+
+    doAnswer(inv -> {
+      Consumer<Device> action = inv.getArgument(2);
+      action.accept(d);
+      action.accept(d);
+      return null;
+    }).when(service).exportDevices(eq("Google"), isNull(), any());
+
+    MvcResult started = mvc.perform(get("/v1/devices/export").param("brand", "Google"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mvc.perform(asyncDispatch(started))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+        .andExpect(content().string(containsString("\"id\":\"" + id + "\"")))
+        .andExpect(content().string(containsString("}\n{")))
+        .andExpect(content().string(endsWith("}\n")));
   }
 
   @Test
@@ -124,7 +388,7 @@ class DeviceControllerTest {
     ReflectionTestUtils.setField(d, "id", id);
     ReflectionTestUtils.setField(d, "createdAt", Instant.parse("2025-01-01T00:00:00Z"));
 
-    when(service.update(eq(id), any())).thenReturn(d);
+    when(service.update(eq(id), any(), isNull())).thenReturn(d);
 
     mvc.perform(put("/v1/devices/{id}", id)
             .contentType(MediaType.APPLICATION_JSON)
@@ -146,7 +410,7 @@ class DeviceControllerTest {
     ReflectionTestUtils.setField(d, "id", id);
     ReflectionTestUtils.setField(d, "createdAt", Instant.parse("2025-01-01T00:00:00Z"));
 
-    when(service.patch(eq(id), any())).thenReturn(d);
+    when(service.patch(eq(id), any(), isNull())).thenReturn(d);
 
     mvc.perform(patch("/v1/devices/{id}", id)
             .contentType(MediaType.APPLICATION_JSON)
@@ -161,12 +425,12 @@ class DeviceControllerTest {
   void delete_returns204_andCallsService() throws Exception {
     UUID id = UUID.randomUUID();
 
-    doNothing().when(service).delete(id);
+    doNothing().when(service).delete(id, null);
 
     mvc.perform(delete("/v1/devices/{id}", id))
         .andExpect(status().isNoContent());
 
-    verify(service).delete(id);
+    verify(service).delete(id, null);
   }
 
   @Test
@@ -187,7 +451,7 @@ class DeviceControllerTest {
   void delete_whenDomainViolation_returns409() throws Exception {
     UUID id = UUID.randomUUID();
     doThrow(new DomainValidationException("IN_USE devices cannot be deleted."))
-        .when(service).delete(id);
+        .when(service).delete(id, null);
 
     mvc.perform(delete("/v1/devices/{id}", id))
         .andExpect(status().isConflict())
@@ -205,4 +469,44 @@ class DeviceControllerTest {
         .andExpect(jsonPath("$.title").value("Resource not found"))
         .andExpect(jsonPath("$.errorCode").value("NOT_FOUND"));
   }
+
+  @Test
+  void getById_returnsETag_and304WhenUnchanged() throws Exception {
+    UUID id = UUID.randomUUID();
+
+    Device d = new Device();
+    d.setName("Pixel");
+    d.setBrand("Google");
+    d.setState(DeviceState.INACTIVE);
+    ReflectionTestUtils.setField(d, "id", id);
+    ReflectionTestUtils.setField(d, "createdAt", Instant.parse("2025-01-01T00:00:00Z"));
+    ReflectionTestUtils.setField(d, "version", 7L);
+
+    when(service.get(id)).thenReturn(d);
+
+    mvc.perform(get("/v1/devices/{id}", id))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"7\""))
+        .andExpect(jsonPath("$.version").value(7));
+
+    mvc.perform(get("/v1/devices/{id}", id).header(HttpHeaders.IF_NONE_MATCH, "\"7\""))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+  }
+
+  @Test
+  void patch_withIfMatch_passesExpectedVersion_andMapsStaleVersionTo412() throws Exception {
+    UUID id = UUID.randomUUID();
+    when(service.patch(eq(id), any(), eq(3L)))
+        .thenThrow(new PreconditionFailedException("Device has changed"));
+
+    mvc.perform(patch("/v1/devices/{id}", id)
+            .header(HttpHeaders.IF_MATCH, "\"3\"")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("""
+                {"state":"INACTIVE"}
+                """))
+        .andExpect(status().isPreconditionFailed())
+        .andExpect(jsonPath("$.errorCode").value("PRECONDITION_FAILED"));
+  }
 }
@@ -0,0 +1,64 @@
+package org.assessment.devicemanagement.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AdmissionControlledDataSourceTest {
+
+  private DataSource target;
+  private AdmissionControlledDataSource dataSource;
+  private SimpleMeterRegistry registry;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    target = mock(DataSource.class);
+    when(target.getConnection()).thenAnswer(inv -> mock(Connection.class));
+    dataSource = new AdmissionControlledDataSource(target, 1, Duration.ofMillis(50));
+    registry = new SimpleMeterRegistry();
+    dataSource.bindTo(registry);
+  }
+
+  @Test
+  void getConnection_whenAllPermitsHeld_timesOut() throws SQLException {
+    Connection held = dataSource.getConnection();
+
+    assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+    assertEquals(1.0, registry.get("devices.db.admission.active").gauge().value());
+
+    held.close();
+  }
+
+  @Test
+  void close_releasesPermitOnce() throws SQLException {
+    Connection first = dataSource.getConnection();
+    first.close();
+    first.close();
+
+    Connection second = dataSource.getConnection();
+    assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+    second.close();
+
+    assertEquals(0.0, registry.get("devices.db.admission.active").gauge().value());
+    assertEquals(3, registry.get("devices.db.admission.wait").timer().count());
+  }
+
+  @Test
+  void getConnection_whenPoolFails_releasesPermit() throws SQLException {
+    when(target.getConnection()).thenThrow(new SQLException("down"));
+
+    assertThrows(SQLException.class, dataSource::getConnection);
+
+    assertEquals(0.0, registry.get("devices.db.admission.active").gauge().value());
+  }
+}
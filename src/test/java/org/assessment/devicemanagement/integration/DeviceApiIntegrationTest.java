@@ -2,15 +2,36 @@ package org.assessment.devicemanagement.integration;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
+import org.assessment.devicemanagement.dto.BatchDeviceRequest;
+import org.assessment.devicemanagement.dto.BatchDeviceResponse;
+import org.assessment.devicemanagement.dto.BatchItemResult;
 import org.assessment.devicemanagement.dto.CreateDeviceRequest;
+import org.assessment.devicemanagement.dto.DeviceChangeResponse;
+import org.assessment.devicemanagement.dto.DeviceChangesResponse;
+import org.assessment.devicemanagement.dto.DevicePatchItem;
 import org.assessment.devicemanagement.dto.DeviceResponse;
+import org.assessment.devicemanagement.dto.PatchDeviceRequest;
+import org.assessment.devicemanagement.dto.StateTransitionRequest;
+import org.assessment.devicemanagement.dto.StateTransitionResponse;
+import org.assessment.devicemanagement.event.DeviceChangeType;
 import org.assessment.devicemanagement.model.DeviceState;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.boot.test.web.client.TestRestTemplate;
@@ -23,7 +44,9 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 @Testcontainers
 @TestPropertySource(properties = {
     "spring.flyway.enabled=true",
-    "spring.jpa.hibernate.ddl-auto=validate"
+    "spring.jpa.hibernate.ddl-auto=validate",
+    // lets the tests act as several clients through X-Client-Id
+    "devices.rate-limit.trusted-proxies=127.0.0.1,0:0:0:0:0:0:0:1"
 })
 class DeviceApiIntegrationTest {
 
@@ -53,4 +76,230 @@ class DeviceApiIntegrationTest {
     assertThat(fetched.getBody()).isNotNull();
     assertThat(fetched.getBody().name()).isEqualTo("iPhone");
   }
+
+  @Test
+  void create_withIdempotencyKey_createsOnce_forRetriesAndConcurrentDuplicates() throws Exception {
+    String key = UUID.randomUUID().toString();
+    CreateDeviceRequest req = new CreateDeviceRequest("Provisioned", "Acme", DeviceState.AVAILABLE);
+    HttpHeaders headers = new HttpHeaders();
+    headers.add("Idempotency-Key", key);
+
+    List<CompletableFuture<ResponseEntity<DeviceResponse>>> concurrent =
+        IntStream.range(0, 8)
+            .mapToObj(i -> CompletableFuture.supplyAsync(() -> rest.postForEntity("/v1/devices",
+                new HttpEntity<>(req, headers), DeviceResponse.class)))
+            .toList();
+    List<ResponseEntity<DeviceResponse>> responses = new ArrayList<>();
+    for (var response : concurrent) {
+      responses.add(response.get(10, TimeUnit.SECONDS));
+    }
+
+    assertThat(responses).extracting(ResponseEntity::getStatusCode)
+        .containsOnly(HttpStatus.CREATED);
+    assertThat(responses).extracting(r -> r.getBody().id()).containsOnly(
+        responses.get(0).getBody().id());
+    assertThat(responses).extracting(r -> r.getHeaders().getFirst("Idempotent-Replayed"))
+        .containsOnlyOnce("false");
+
+    CreateDeviceRequest other = new CreateDeviceRequest("Other", "Acme", DeviceState.AVAILABLE);
+    assertThat(rest.postForEntity("/v1/devices", new HttpEntity<>(other, headers), String.class)
+        .getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+
+    // Keys are per client: another client's equal key is unrelated
+    HttpHeaders otherClient = new HttpHeaders();
+    otherClient.add("Idempotency-Key", key);
+    otherClient.add("X-Client-Id", "other-client");
+    ResponseEntity<DeviceResponse> separate = rest.postForEntity("/v1/devices",
+        new HttpEntity<>(other, otherClient), DeviceResponse.class);
+    assertThat(separate.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    assertThat(separate.getHeaders().getFirst("Idempotent-Replayed")).isEqualTo("false");
+
+    DeviceResponse[] acme = rest.getForObject("/v1/devices?brand=Acme", DeviceResponse[].class);
+    assertThat(acme).extracting(DeviceResponse::name).containsOnlyOnce("Provisioned")
+        .containsOnlyOnce("Other");
+  }
+
+  @Test
+  void batch_reportsPerItemOutcomes() {
+    BatchDeviceRequest create = new BatchDeviceRequest(List.of(
+        new CreateDeviceRequest("iPad", "Apple", DeviceState.AVAILABLE),
+        new CreateDeviceRequest("Galaxy", "Samsung", DeviceState.IN_USE)
+    ), null, null);
+
+    BatchDeviceResponse created =
+        rest.postForObject("/v1/devices:batch", create, BatchDeviceResponse.class);
+
+    assertThat(created.succeeded()).isEqualTo(2);
+    UUID ipad = UUID.fromString(created.results().get(0).id());
+    UUID galaxy = UUID.fromString(created.results().get(1).id());
+
+    BatchDeviceRequest mixed = new BatchDeviceRequest(null,
+        List.of(
+            new DevicePatchItem(ipad, new PatchDeviceRequest("iPad Air", null, null)),
+            new DevicePatchItem(galaxy, new PatchDeviceRequest("Galaxy S", null, null))),
+        List.of(UUID.randomUUID(), ipad));
+
+    BatchDeviceResponse result =
+        rest.postForObject("/v1/devices:batch", mixed, BatchDeviceResponse.class);
+
+    assertThat(result.results()).extracting(BatchItemResult::status)
+        .containsExactly(200, 409, 404, 204);
+    assertThat(result.results().get(0).device().name()).isEqualTo("iPad Air");
+    assertThat(rest.getForEntity("/v1/devices/" + ipad, String.class).getStatusCode())
+        .isEqualTo(HttpStatus.NOT_FOUND);
+  }
+
+  @Test
+  void stateTransitions_updateMatchingDevices_andInvalidateCachedReads() {
+    BatchDeviceRequest create = new BatchDeviceRequest(List.of(
+        new CreateDeviceRequest("Tracker 1", "Fleetco", DeviceState.AVAILABLE),
+        new CreateDeviceRequest("Tracker 2", "FLEETCO", DeviceState.AVAILABLE),
+        new CreateDeviceRequest("Tracker 3", "Fleetco", DeviceState.IN_USE)
+    ), null, null);
+    BatchDeviceResponse created =
+        rest.postForObject("/v1/devices:batch", create, BatchDeviceResponse.class);
+    String first = created.results().get(0).id();
+    // cached before the transition
+    assertThat(rest.getForObject("/v1/devices/" + first, DeviceResponse.class).state())
+        .isEqualTo(DeviceState.AVAILABLE);
+
+    StateTransitionRequest request = new StateTransitionRequest("fleetco", DeviceState.AVAILABLE,
+        null, null, DeviceState.INACTIVE);
+    StateTransitionResponse response = rest.postForObject("/v1/devices/state-transitions",
+        request, StateTransitionResponse.class);
+
+    assertThat(response.updated()).isEqualTo(2);
+    assertThat(rest.getForObject("/v1/devices/" + first, DeviceResponse.class).state())
+        .isEqualTo(DeviceState.INACTIVE);
+    DeviceResponse[] fleet = rest.getForObject("/v1/devices?brand=Fleetco",
+        DeviceResponse[].class);
+    assertThat(fleet).extracting(DeviceResponse::state).containsExactlyInAnyOrder(
+        DeviceState.INACTIVE, DeviceState.INACTIVE, DeviceState.IN_USE);
+
+    StateTransitionRequest unfiltered =
+        new StateTransitionRequest(null, null, null, null, DeviceState.INACTIVE);
+    assertThat(rest.postForEntity("/v1/devices/state-transitions", unfiltered, String.class)
+        .getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    StateTransitionRequest blankBrand =
+        new StateTransitionRequest(" ", DeviceState.AVAILABLE, null, null, DeviceState.INACTIVE);
+    assertThat(rest.postForEntity("/v1/devices/state-transitions", blankBrand, String.class)
+        .getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+  }
+
+  @Test
+  void changes_returnWritesInCommitOrder_andLongPollWakesOnCommit() throws Exception {
+    String since = latestChangePosition();
+
+    DeviceResponse created = rest.postForObject("/v1/devices",
+        new CreateDeviceRequest("Pixel", "Google", DeviceState.AVAILABLE), DeviceResponse.class);
+    rest.patchForObject("/v1/devices/" + created.id(),
+        new PatchDeviceRequest(null, null, DeviceState.INACTIVE), DeviceResponse.class);
+    rest.delete("/v1/devices/" + created.id());
+
+    DeviceChangesResponse changes = rest.getForObject("/v1/devices/changes?since=" + since,
+        DeviceChangesResponse.class);
+
+    assertThat(changes.changes()).extracting(DeviceChangeResponse::type)
+        .containsExactly(DeviceChangeType.CREATED, DeviceChangeType.UPDATED,
+            DeviceChangeType.DELETED);
+    assertThat(changes.changes()).extracting(DeviceChangeResponse::id).containsOnly(created.id());
+    assertThat(changes.changes().get(1).state()).isEqualTo(DeviceState.INACTIVE);
+    assertThat(changes.changes().get(2).name()).isNull();
+
+    String next = changes.nextSince();
+    CompletableFuture<DeviceChangesResponse> waiting = CompletableFuture.supplyAsync(() ->
+        rest.getForObject("/v1/devices/changes?wait=10&since=" + next,
+            DeviceChangesResponse.class));
+    Thread.sleep(200);
+    rest.postForObject("/v1/devices",
+        new CreateDeviceRequest("Nest", "Google", DeviceState.AVAILABLE), DeviceResponse.class);
+
+    assertThat(waiting.get(5, TimeUnit.SECONDS).changes())
+        .extracting(DeviceChangeResponse::name).containsExactly("Nest");
+  }
+
+  @Test
+  void changes_areHeldBack_whileAnOlderWriteTransactionIsRunning() throws Exception {
+    String since = latestChangePosition();
+
+    try (Connection older = DriverManager.getConnection(postgres.getJdbcUrl(),
+        postgres.getUsername(), postgres.getPassword())) {
+      older.setAutoCommit(false);
+      try (Statement statement = older.createStatement()) {
+        // takes a transaction id, like a device write that hasn't appended its changes yet
+        statement.execute("SELECT pg_current_xact_id()");
+      }
+
+      DeviceResponse created = rest.postForObject("/v1/devices",
+          new CreateDeviceRequest("Held", "Acme", DeviceState.AVAILABLE), DeviceResponse.class);
+      assertThat(rest.getForObject("/v1/devices/changes?since=" + since,
+          DeviceChangesResponse.class).changes()).isEmpty();
+
+      older.commit();
+      assertThat(rest.getForObject("/v1/devices/changes?since=" + since,
+          DeviceChangesResponse.class).changes())
+          .extracting(DeviceChangeResponse::id).contains(created.id());
+    }
+  }
+
+  @Test
+  void patch_racingWithArchival_returnsRetryableConflict_andSucceedsWhenRepeated()
+      throws Exception {
+    DeviceResponse created = rest.postForObject("/v1/devices",
+        new CreateDeviceRequest("Old", "Archive", DeviceState.INACTIVE), DeviceResponse.class);
+    HttpEntity<PatchDeviceRequest> patch =
+        new HttpEntity<>(new PatchDeviceRequest(null, null, DeviceState.AVAILABLE));
+
+    CompletableFuture<ResponseEntity<String>> racing;
+    try (Connection archiver = DriverManager.getConnection(postgres.getJdbcUrl(),
+        postgres.getUsername(), postgres.getPassword())) {
+      archiver.setAutoCommit(false);
+      try (Statement statement = archiver.createStatement()) {
+        // what DeviceArchiver does, left uncommitted so the PATCH has to wait for the row
+        statement.executeUpdate("UPDATE devices SET archived = true WHERE id = '"
+            + created.id() + "'");
+        racing = CompletableFuture.supplyAsync(() -> rest.exchange(
+            "/v1/devices/" + created.id(), HttpMethod.PATCH, patch, String.class));
+        awaitLockWaiter(statement);
+      }
+      archiver.commit();
+    }
+
+    ResponseEntity<String> raced = racing.get(10, TimeUnit.SECONDS);
+    assertThat(raced.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    assertThat(raced.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+    assertThat(raced.getBody()).contains("CONCURRENT_WRITE");
+
+    ResponseEntity<DeviceResponse> repeated = rest.exchange("/v1/devices/" + created.id(),
+        HttpMethod.PATCH, patch, DeviceResponse.class);
+    assertThat(repeated.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(repeated.getBody().state()).isEqualTo(DeviceState.AVAILABLE);
+    // the write moved it back to the hot partition
+    assertThat(rest.getForObject("/v1/devices?brand=Archive", DeviceResponse[].class))
+        .extracting(DeviceResponse::id).containsExactly(created.id());
+  }
+
+  private static void awaitLockWaiter(Statement statement) throws Exception {
+    for (int i = 0; i < 100; i++) {
+      try (var rs = statement.executeQuery("SELECT count(*) FROM pg_locks WHERE NOT granted")) {
+        rs.next();
+        if (rs.getLong(1) > 0) {
+          return;
+        }
+      }
+      Thread.sleep(50);
+    }
+    throw new AssertionError("PATCH never waited for the archived row");
+  }
+
+  private String latestChangePosition() {
+    String since = null;
+    DeviceChangesResponse page;
+    do {
+      page = rest.getForObject("/v1/devices/changes?limit=1000"
+          + (since != null ? "&since=" + since : ""), DeviceChangesResponse.class);
+      since = page.nextSince();
+    } while (!page.changes().isEmpty());
+    return since;
+  }
 }
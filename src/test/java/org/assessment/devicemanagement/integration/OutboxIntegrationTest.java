@@ -0,0 +1,107 @@
+package org.assessment.devicemanagement.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.UUID;
+import org.assessment.devicemanagement.dto.CreateDeviceRequest;
+import org.assessment.devicemanagement.dto.PatchDeviceRequest;
+import org.assessment.devicemanagement.event.DeviceChangeType;
+import org.assessment.devicemanagement.model.Device;
+import org.assessment.devicemanagement.model.DeviceState;
+import org.assessment.devicemanagement.model.OutboxMessage;
+import org.assessment.devicemanagement.outbox.InMemoryOutboxSink;
+import org.assessment.devicemanagement.outbox.OutboxPublisher;
+import org.assessment.devicemanagement.repository.OutboxRepository;
+import org.assessment.devicemanagement.service.DeviceService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+@SpringBootTest
+@Testcontainers
+@TestPropertySource(properties = {
+    "spring.flyway.enabled=true",
+    "spring.jpa.hibernate.ddl-auto=validate",
+    "devices.outbox.enabled=true",
+    "devices.outbox.sink=memory",
+    "devices.outbox.batch-size=2",
+    // the test drains the outbox itself
+    "devices.outbox.poll-interval=1h"
+})
+class OutboxIntegrationTest {
+
+  @Container
+  @ServiceConnection
+  static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16");
+
+  @Autowired
+  DeviceService service;
+
+  @Autowired
+  OutboxPublisher publisher;
+
+  @Autowired
+  InMemoryOutboxSink sink;
+
+  @Autowired
+  OutboxRepository outbox;
+
+  @Autowired
+  TransactionTemplate transactionTemplate;
+
+  @Autowired
+  JdbcTemplate jdbc;
+
+  @Test
+  void mutations_arePublishedOnce_inBatches_andRemovedFromTheOutbox() {
+    Device device = service.create(
+        new CreateDeviceRequest("Pixel", "Google", DeviceState.AVAILABLE));
+    UUID id = device.getId();
+    service.patch(id, new PatchDeviceRequest(null, null, DeviceState.INACTIVE), null);
+    service.delete(id, null);
+
+    assertThat(outbox.backlog().pending()).isEqualTo(3);
+    assertThat(publisher.drain()).isEqualTo(3);
+    assertThat(publisher.drain()).isZero();
+
+    List<OutboxMessage> published = sink.published();
+    assertThat(published).extracting(OutboxMessage::deviceId).containsOnly(id);
+    assertThat(published).extracting(OutboxMessage::type).containsExactly(
+        DeviceChangeType.CREATED, DeviceChangeType.UPDATED, DeviceChangeType.DELETED);
+    assertThat(published.get(1).payload())
+        .contains("\"state\":\"INACTIVE\"", "\"state\":\"AVAILABLE\"");
+    assertThat(jdbc.queryForObject("SELECT count(*) FROM device_outbox", Long.class)).isZero();
+    assertThat(outbox.backlog()).isEqualTo(new OutboxRepository.Backlog(0, null));
+  }
+
+  @Test
+  void rolledBackWrite_leavesNoOutboxMessage() {
+    long before = outbox.backlog().pending();
+
+    // fails after the outbox rows were inserted, just before the commit
+    assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+      service.create(new CreateDeviceRequest("Doomed", "Google", DeviceState.AVAILABLE));
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void beforeCommit(boolean readOnly) {
+          throw new IllegalStateException("commit refused");
+        }
+      });
+    })).isInstanceOf(IllegalStateException.class);
+
+    assertThat(outbox.backlog().pending()).isEqualTo(before);
+    assertThat(jdbc.queryForObject("SELECT count(*) FROM devices WHERE name = 'Doomed'",
+        Long.class)).isZero();
+  }
+}
@@ -0,0 +1,124 @@
+package org.assessment.devicemanagement.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import org.assessment.devicemanagement.datasource.ReadYourWritesFilter;
+import org.assessment.devicemanagement.dto.CreateDeviceRequest;
+import org.assessment.devicemanagement.dto.DeviceResponse;
+import org.assessment.devicemanagement.model.DeviceState;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Testcontainers
+@TestPropertySource(properties = {
+    "spring.flyway.enabled=true",
+    "spring.jpa.hibernate.ddl-auto=validate",
+    "devices.db.replicas.enabled=true",
+    "devices.db.replicas.sticky-after-write=1m"
+})
+class ReplicaRoutingIntegrationTest {
+
+  private static final UUID REPLICA_ONLY_ID = UUID.randomUUID();
+
+  @Container
+  @ServiceConnection
+  static final PostgreSQLContainer<?> primary = new PostgreSQLContainer<>("postgres:16");
+
+  // Stands in for a streaming replica: same schema, but only the rows put there below, which
+  // tells the test which database answered
+  @Container
+  static final PostgreSQLContainer<?> replica = new PostgreSQLContainer<>("postgres:16");
+
+  @Autowired
+  TestRestTemplate rest;
+
+  @DynamicPropertySource
+  static void replicaProperties(DynamicPropertyRegistry registry) {
+    registry.add("devices.db.replicas.urls", replica::getJdbcUrl);
+    registry.add("devices.db.replicas.username", replica::getUsername);
+    registry.add("devices.db.replicas.password", replica::getPassword);
+  }
+
+  @BeforeAll
+  static void prepareReplica() throws SQLException {
+    Flyway.configure()
+        .dataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword())
+        .load()
+        .migrate();
+    try (Connection connection = DriverManager.getConnection(replica.getJdbcUrl(),
+        replica.getUsername(), replica.getPassword());
+        PreparedStatement insert = connection.prepareStatement("""
+            INSERT INTO devices (id, name, brand, state, created_at)
+            VALUES (?, 'replica-only', 'Acme', 'AVAILABLE', now())""")) {
+      insert.setObject(1, REPLICA_ONLY_ID);
+      insert.executeUpdate();
+    }
+  }
+
+  @Test
+  void readOnlyRequests_goToReplica_untilTheClientWrites() {
+    assertThat(names(rest.getForEntity("/v1/devices", DeviceResponse[].class)))
+        .contains("replica-only");
+
+    ResponseEntity<DeviceResponse> created = rest.postForEntity("/v1/devices",
+        new CreateDeviceRequest("written", "Acme", DeviceState.AVAILABLE), DeviceResponse.class);
+    assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    String cookie = created.getHeaders().getFirst(HttpHeaders.SET_COOKIE);
+    assertThat(cookie).startsWith(ReadYourWritesFilter.COOKIE + "=");
+
+    // Other clients keep reading the replica, which never receives the write here
+    assertThat(names(rest.getForEntity("/v1/devices", DeviceResponse[].class)))
+        .contains("replica-only")
+        .doesNotContain("written");
+
+    // The writer reads its own write from the primary
+    HttpHeaders headers = new HttpHeaders();
+    headers.add(HttpHeaders.COOKIE, cookie.split(";", 2)[0]);
+    ResponseEntity<DeviceResponse[]> own = rest.exchange("/v1/devices", HttpMethod.GET,
+        new HttpEntity<>(headers), DeviceResponse[].class);
+    assertThat(names(own)).contains("written").doesNotContain("replica-only");
+
+    // including exports, which are streamed from another thread
+    ResponseEntity<String> export = rest.exchange("/v1/devices/export", HttpMethod.GET,
+        new HttpEntity<>(headers), String.class);
+    assertThat(export.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(export.getBody()).contains("\"written\"").doesNotContain("replica-only");
+  }
+
+  @Test
+  void cacheFills_readThePrimary() {
+    ResponseEntity<String> response = rest.getForEntity("/v1/devices/" + REPLICA_ONLY_ID,
+        String.class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+  }
+
+  private static List<String> names(ResponseEntity<DeviceResponse[]> response) {
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    return Arrays.stream(response.getBody()).map(DeviceResponse::name).toList();
+  }
+}
@@ -0,0 +1,38 @@
+package org.assessment.devicemanagement.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+class ClientIdentityTest {
+
+  private final ClientIdentity clients = new ClientIdentity("X-Client-Id", Set.of("10.0.0.1"));
+
+  @Test
+  void header_isIgnored_unlessTheRequestComesFromATrustedProxy() {
+    MockHttpServletRequest direct = request("203.0.113.7");
+    direct.addHeader("X-Client-Id", "someone-else");
+    assertEquals("addr:203.0.113.7", clients.of(direct));
+
+    MockHttpServletRequest proxied = request("10.0.0.1");
+    proxied.addHeader("X-Client-Id", "tenant-a");
+    assertEquals("client:tenant-a", clients.of(proxied));
+    assertEquals("addr:10.0.0.1", clients.of(request("10.0.0.1")));
+  }
+
+  @Test
+  void authenticatedPrincipal_winsOverHeaderAndAddress() {
+    MockHttpServletRequest request = request("10.0.0.1");
+    request.addHeader("X-Client-Id", "tenant-a");
+    request.setUserPrincipal(() -> "alice");
+    assertEquals("user:alice", clients.of(request));
+  }
+
+  private static MockHttpServletRequest request(String remoteAddr) {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/devices");
+    request.setRemoteAddr(remoteAddr);
+    return request;
+  }
+}
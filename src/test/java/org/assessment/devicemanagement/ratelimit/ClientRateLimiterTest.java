@@ -0,0 +1,36 @@
+package org.assessment.devicemanagement.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class ClientRateLimiterTest {
+
+  private final AtomicLong now = new AtomicLong();
+  // 10 tokens of burst, refilled at one token per 100 ms
+  private final ClientRateLimiter limiter = new ClientRateLimiter(10, 10, 1000, now::get);
+
+  @Test
+  void burstUpToCapacity_thenRejectsUntilTokensRefill() {
+    for (int i = 0; i < 10; i++) {
+      assertEquals(Duration.ZERO, limiter.tryAcquire("agent", 1));
+    }
+    assertEquals(Duration.ofMillis(100), limiter.tryAcquire("agent", 1));
+
+    now.addAndGet(Duration.ofMillis(100).toNanos());
+    assertEquals(Duration.ZERO, limiter.tryAcquire("agent", 1));
+    // other clients have their own bucket
+    assertEquals(Duration.ZERO, limiter.tryAcquire("other", 10));
+  }
+
+  @Test
+  void expensiveRequests_drainTheBucketFaster_andRejectionsTakeNothing() {
+    assertEquals(Duration.ZERO, limiter.tryAcquire("agent", 8));
+    assertEquals(Duration.ofMillis(600), limiter.tryAcquire("agent", 8));
+    assertEquals(Duration.ofMillis(600), limiter.tryAcquire("agent", 8));
+
+    assertEquals(Duration.ZERO, limiter.tryAcquire("agent", 2));
+  }
+}
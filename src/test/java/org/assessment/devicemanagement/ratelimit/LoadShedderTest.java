@@ -0,0 +1,38 @@
+package org.assessment.devicemanagement.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class LoadShedderTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final Timer acquire = registry.timer("hikaricp.connections.acquire", "pool", "primary");
+  private final LoadShedder shedder =
+      new LoadShedder(registry, Duration.ofMillis(100), 0.25, 0.5);
+
+  @Test
+  void shedsMoreWhileWaitsStayHigh_andRecoversWhenTheyDrop() {
+    acquire.record(Duration.ofMillis(300));
+    shedder.sample();
+    assertEquals(0.25, shedder.rate());
+
+    acquire.record(Duration.ofMillis(200));
+    shedder.sample();
+    acquire.record(Duration.ofMillis(200));
+    shedder.sample();
+    assertEquals(0.5, shedder.rate());
+
+    // only waits since the previous sample count
+    acquire.record(Duration.ofMillis(5));
+    shedder.sample();
+    assertEquals(0.25, shedder.rate());
+    shedder.sample();
+    assertEquals(0.0, shedder.rate());
+    assertFalse(shedder.shouldShed());
+  }
+}
@@ -2,15 +2,27 @@ package org.assessment.devicemanagement.repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.time.Instant;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 import org.assessment.devicemanagement.model.Device;
+import org.assessment.devicemanagement.model.DeviceField;
+import org.assessment.devicemanagement.model.DeviceFilter;
+import org.assessment.devicemanagement.model.DeviceSort;
 import org.assessment.devicemanagement.model.DeviceState;
+import org.assessment.devicemanagement.model.DeviceView;
+import org.assessment.devicemanagement.util.DeviceCursor;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.TestPropertySource;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
@@ -19,9 +31,12 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 @DataJpaTest
 @Testcontainers
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(DeviceArchiveRepository.class)
 @TestPropertySource(properties = {
     "spring.flyway.enabled=true",
-    "spring.jpa.hibernate.ddl-auto=validate"
+    "spring.jpa.hibernate.ddl-auto=validate",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "org.assessment.devicemanagement.repository.RecordingStatementInspector"
 })
 class DeviceRepositoryTest {
 
@@ -32,29 +47,35 @@ class DeviceRepositoryTest {
   @Autowired
   DeviceRepository repo;
 
+  @Autowired
+  DeviceArchiveRepository archive;
+
+  @Autowired
+  TestEntityManager entityManager;
+
   @Test
-  void findByBrandIgnoreCase_returnsMatching() {
+  void brandFilter_matchesCaseInsensitively() {
     repo.saveAll(List.of(
         device("iPhone", "Apple", DeviceState.AVAILABLE),
         device("Pixel", "Google", DeviceState.INACTIVE),
         device("MacBook", "APPLE", DeviceState.AVAILABLE)
     ));
 
-    var result = repo.findByBrandIgnoreCase("apple");
+    var result = findMatching("apple", null);
 
     assertThat(result).extracting(Device::getName)
         .containsExactlyInAnyOrder("iPhone", "MacBook");
   }
 
   @Test
-  void findByState_returnsMatching() {
+  void stateFilter_returnsMatching() {
     repo.saveAll(List.of(
         device("A", "Apple", DeviceState.AVAILABLE),
         device("B", "Apple", DeviceState.IN_USE),
         device("C", "Samsung", DeviceState.IN_USE)
     ));
 
-    var result = repo.findByState(DeviceState.IN_USE);
+    var result = findMatching(null, DeviceState.IN_USE);
 
     assertThat(result).hasSize(2);
     assertThat(result).extracting(Device::getName)
@@ -62,19 +83,309 @@ class DeviceRepositoryTest {
   }
 
   @Test
-  void findByBrandIgnoreCaseAndState_returnsIntersection() {
+  void brandAndStateFilter_returnsIntersection() {
     repo.saveAll(List.of(
         device("A", "Apple", DeviceState.AVAILABLE),
         device("B", "Apple", DeviceState.IN_USE),
         device("C", "Samsung", DeviceState.AVAILABLE)
     ));
 
-    var result = repo.findByBrandIgnoreCaseAndState("apple", DeviceState.AVAILABLE);
+    var result = findMatching("apple", DeviceState.AVAILABLE);
 
     assertThat(result).hasSize(1);
     assertThat(result.get(0).getName()).isEqualTo("A");
   }
 
+  @Test
+  void updateIfMutable_appliesChange_unlessInUseIdentityWouldChange() {
+    Device available = repo.save(device("A", "Apple", DeviceState.AVAILABLE));
+    Device inUse = repo.save(device("B", "Apple", DeviceState.IN_USE));
+    repo.flush();
+    entityManager.clear();
+
+    var renamed = repo.updateIfMutable(available.getId(), "A2", null, null, null);
+    var blocked = repo.updateIfMutable(inUse.getId(), "B2", null, null, null);
+    var stateOnly = repo.updateIfMutable(inUse.getId(), "B", null, "INACTIVE", null);
+
+    assertThat(renamed).get().extracting(u -> u.device().getName()).isEqualTo("A2");
+    assertThat(renamed).get().extracting(u -> u.previous().name()).isEqualTo("A");
+    assertThat(blocked).isEmpty();
+    assertThat(stateOnly).get().extracting(u -> u.device().getState())
+        .isEqualTo(DeviceState.INACTIVE);
+    assertThat(stateOnly).get().extracting(u -> u.previous().state())
+        .isEqualTo(DeviceState.IN_USE);
+    assertThat(stateOnly).get().extracting(u -> u.device().getVersion()).isEqualTo(1L);
+  }
+
+  @Test
+  void findViews_selectsOnlyRequestedFields_inKeysetOrder() {
+    Device first = repo.save(device("A", "Apple", DeviceState.AVAILABLE));
+    repo.save(device("B", "apple", DeviceState.IN_USE));
+    repo.save(device("C", "Samsung", DeviceState.IN_USE));
+    repo.flush();
+    entityManager.clear();
+
+    var views = repo.findViews(EnumSet.of(DeviceField.NAME, DeviceField.STATE),
+        DeviceFilter.of("APPLE", null), null, null, null);
+
+    assertThat(views).extracting(DeviceView::name).containsExactly("A", "B");
+    assertThat(views).extracting(DeviceView::id).containsOnlyNulls();
+
+    var after = repo.findViews(EnumSet.of(DeviceField.ID), DeviceFilter.of("apple", null),
+        first.getCreatedAt(), first.getId(), 10);
+    assertThat(after).extracting(DeviceView::id)
+        .doesNotContain(first.getId())
+        .doesNotContainNull();
+
+    var filtered = repo.findViews(EnumSet.of(DeviceField.NAME), new DeviceFilter(
+        Set.of("apple", "samsung"), Set.of(DeviceState.IN_USE), null, null, DeviceSort.NAME_DESC,
+        false), null, null, null);
+    assertThat(filtered).extracting(DeviceView::name).containsExactly("C", "B");
+  }
+
+  @Test
+  void search_matchesTermPrefixes_rankingNameAboveBrand() {
+    repo.saveAll(List.of(
+        device("MacBook Pro 14", "Apple", DeviceState.AVAILABLE),
+        device("MacBook Air", "Apple", DeviceState.IN_USE),
+        device("Pro Display", "Macbook Accessories", DeviceState.AVAILABLE),
+        device("ThinkPad", "Lenovo", DeviceState.AVAILABLE)
+    ));
+    repo.flush();
+    entityManager.clear();
+
+    var hits = repo.search("macb:* & pro:*", null, null, 10, 1000);
+
+    assertThat(hits).extracting(hit -> hit.device().getName())
+        .containsExactly("MacBook Pro 14", "Pro Display");
+
+    var first = hits.get(0);
+    var rest = repo.search("macb:* & pro:*", first.rank(), first.device().getId(), 10, 1000);
+    assertThat(rest).extracting(hit -> hit.device().getName()).containsExactly("Pro Display");
+  }
+
+  @Test
+  void search_withMoreMatchesThanCandidates_ranksAndPagesOnlyTheCappedMatches() {
+    repo.saveAll(List.of(
+        device("Dock", "Macbook Accessories", DeviceState.AVAILABLE),
+        device("Sleeve", "Macbook Accessories", DeviceState.AVAILABLE),
+        device("Charger", "Macbook Accessories", DeviceState.AVAILABLE),
+        device("MacBook Air", "Apple", DeviceState.AVAILABLE),
+        device("MacBook Pro", "Apple", DeviceState.AVAILABLE)
+    ));
+    repo.flush();
+    entityManager.clear();
+
+    var capped = repo.search("macb:*", null, null, 10, 2);
+    assertThat(capped).hasSize(2);
+    assertThat(capped.get(0).rank()).isGreaterThanOrEqualTo(capped.get(1).rank());
+
+    var firstPage = repo.search("macb:*", null, null, 1, 2);
+    var first = firstPage.get(0);
+    var rest = repo.search("macb:*", first.rank(), first.device().getId(), 10, 2);
+    assertThat(firstPage).extracting(hit -> hit.device().getId())
+        .containsExactly(capped.get(0).device().getId());
+    assertThat(rest).extracting(hit -> hit.device().getId())
+        .containsExactly(capped.get(1).device().getId());
+  }
+
+  @Test
+  void findAll_withFilterSpecification_combinesInListsRangeAndSort() {
+    repo.saveAll(List.of(
+        device("A", "Apple", DeviceState.AVAILABLE),
+        device("B", "GOOGLE", DeviceState.INACTIVE),
+        device("C", "google", DeviceState.IN_USE),
+        device("D", "Samsung", DeviceState.AVAILABLE)
+    ));
+    repo.flush();
+    entityManager.clear();
+
+    DeviceFilter filter = new DeviceFilter(Set.of("apple", "Google"),
+        Set.of(DeviceState.AVAILABLE, DeviceState.INACTIVE), Instant.EPOCH, null,
+        DeviceSort.NAME_DESC, false);
+
+    var result = repo.findAll(DeviceSpecifications.matching(filter), filter.sort().toSort());
+
+    assertThat(result).extracting(Device::getName).containsExactly("B", "A");
+  }
+
+  @Test
+  void archiveInactiveBefore_hidesLongInactiveDevices_untilTheyAreWritten() {
+    Device stale = repo.save(device("A", "Apple", DeviceState.INACTIVE));
+    repo.save(device("B", "Apple", DeviceState.INACTIVE));
+    repo.save(device("C", "Apple", DeviceState.AVAILABLE));
+    repo.flush();
+    var em = entityManager.getEntityManager();
+    em.createNativeQuery("""
+            UPDATE devices SET state_changed_at = now() - interval '100 days'
+            WHERE name IN ('A', 'C')""")
+        .executeUpdate();
+
+    assertThat(archive.archiveInactiveBefore(Instant.now().minusSeconds(86_400), 10)).isEqualTo(1);
+    entityManager.clear();
+
+    DeviceFilter all = DeviceFilter.ALL;
+    DeviceFilter withArchived = new DeviceFilter(null, null, null, null, null, true);
+    assertThat(repo.findAll(DeviceSpecifications.matching(all), all.sort().toSort()))
+        .extracting(Device::getName).containsExactly("B", "C");
+    assertThat(repo.findAll(DeviceSpecifications.matching(withArchived), all.sort().toSort()))
+        .extracting(Device::getName).containsExactly("A", "B", "C");
+    assertThat(repo.findViews(EnumSet.of(DeviceField.NAME), all, null, null, null))
+        .extracting(DeviceView::name).containsExactly("B", "C");
+    assertThat(repo.findViews(EnumSet.of(DeviceField.NAME), withArchived, null, null, null))
+        .extracting(DeviceView::name).containsExactly("A", "B", "C");
+    assertThat(repo.findById(stale.getId())).get().extracting(Device::isArchived).isEqualTo(true);
+
+    repo.updateIfMutable(stale.getId(), null, null, "AVAILABLE", null);
+    entityManager.clear();
+
+    assertThat(repo.findAll(DeviceSpecifications.matching(all), all.sort().toSort()))
+        .extracting(Device::getName).containsExactly("A", "B", "C");
+  }
+
+  @Test
+  void transitionStates_updatesMatchingDevicesInChunks_returningPreviousValues() {
+    repo.saveAll(List.of(
+        device("A", "Apple", DeviceState.AVAILABLE),
+        device("B", "APPLE", DeviceState.AVAILABLE),
+        device("C", "apple", DeviceState.IN_USE),
+        device("D", "Samsung", DeviceState.AVAILABLE)
+    ));
+    repo.flush();
+    entityManager.clear();
+
+    var first = repo.transitionStates("Apple", "AVAILABLE", null, null, "INACTIVE", null, 1);
+    var second = repo.transitionStates("Apple", "AVAILABLE", null, null, "INACTIVE",
+        first.get(0).device().getId(), 1);
+    var third = repo.transitionStates("Apple", "AVAILABLE", null, null, "INACTIVE",
+        second.get(0).device().getId(), 1);
+    entityManager.clear();
+
+    assertThat(first).hasSize(1);
+    assertThat(second).hasSize(1);
+    assertThat(third).isEmpty();
+    assertThat(second.get(0).device().getId().toString())
+        .isGreaterThan(first.get(0).device().getId().toString());
+    assertThat(first.get(0).previous().state()).isEqualTo(DeviceState.AVAILABLE);
+    assertThat(first.get(0).device().getState()).isEqualTo(DeviceState.INACTIVE);
+    assertThat(first.get(0).device().getVersion()).isEqualTo(first.get(0).previous().version() + 1);
+    assertThat(findMatching(null, DeviceState.INACTIVE)).extracting(Device::getName)
+        .containsExactlyInAnyOrder("A", "B");
+    assertThat(findMatching(null, DeviceState.AVAILABLE)).extracting(Device::getName)
+        .containsExactly("D");
+  }
+
+  @Test
+  void deleteIfDeletable_skipsInUseDevices() {
+    Device available = repo.save(device("A", "Apple", DeviceState.AVAILABLE));
+    Device inUse = repo.save(device("B", "Apple", DeviceState.IN_USE));
+    repo.flush();
+    entityManager.clear();
+
+    assertThat(repo.deleteIfDeletable(inUse.getId(), null)).isEmpty();
+    assertThat(repo.deleteIfDeletable(available.getId(), null)).isPresent();
+    assertThat(repo.existsById(available.getId())).isFalse();
+    assertThat(repo.existsById(inUse.getId())).isTrue();
+  }
+
+  @Test
+  void deleteAllDeletable_deletesOnlyDevicesNotInUse() {
+    Device available = repo.save(device("A", "Apple", DeviceState.AVAILABLE));
+    Device inUse = repo.save(device("B", "Apple", DeviceState.IN_USE));
+    repo.flush();
+    entityManager.clear();
+
+    assertThat(repo.deleteAllDeletable(List.of(available.getId(), inUse.getId(),
+        UUID.randomUUID()))).extracting(Device::getId).containsExactly(available.getId());
+    entityManager.clear();
+    assertThat(repo.existsById(available.getId())).isFalse();
+    assertThat(repo.existsById(inUse.getId())).isTrue();
+  }
+
+  @Test
+  void brandFilters_useNormalizedBrandIndexes() {
+    repo.saveAll(List.of(
+        device("A", "Apple", DeviceState.AVAILABLE),
+        device("B", "APPLE", DeviceState.IN_USE),
+        device("C", "Samsung", DeviceState.AVAILABLE)
+    ));
+    repo.flush();
+
+    var em = entityManager.getEntityManager();
+    em.createNativeQuery("ANALYZE devices").executeUpdate();
+    // a three-row table would otherwise always be sequentially scanned
+    em.createNativeQuery("SET LOCAL enable_seqscan = off").executeUpdate();
+
+    // The statements the repository really sends, not copies of them
+    String brandList = RecordingStatementInspector.lastStatementOf(() ->
+        repo.findAll(DeviceSpecifications.matching(DeviceFilter.of("Apple", null))));
+    String brandPage = RecordingStatementInspector.lastStatementOf(() ->
+        repo.findPageByBrandAfter("Apple", DeviceCursor.START.createdAt(),
+            DeviceCursor.START.id(), 10));
+    String brandAndStatePage = RecordingStatementInspector.lastStatementOf(() ->
+        repo.findPageByBrandAndStateAfter("Apple", DeviceState.AVAILABLE.name(),
+            DeviceCursor.START.createdAt(), DeviceCursor.START.id(), 10));
+
+    assertThat(genericPlan(brandList))
+        .contains("idx_devices_brand_normalized").doesNotContain("Seq Scan");
+    assertThat(genericPlan(brandPage))
+        .contains("idx_devices_brand_normalized").doesNotContain("Seq Scan");
+    assertThat(genericPlan(brandAndStatePage))
+        .contains("idx_devices_brand_normalized_state").doesNotContain("Seq Scan");
+  }
+
+  // EXPLAIN (GENERIC_PLAN) plans a statement with $n parameters without values for them
+  private String genericPlan(String jdbcSql) {
+    StringBuilder sql = new StringBuilder("EXPLAIN (GENERIC_PLAN) ");
+    int parameter = 0;
+    for (char c : jdbcSql.toCharArray()) {
+      if (c == '?') {
+        sql.append('$').append(++parameter);
+      } else {
+        sql.append(c);
+      }
+    }
+    return entityManager.getEntityManager().createNativeQuery(sql.toString())
+        .getResultList().toString();
+  }
+
+  @Test
+  void findPageAfter_walksAllRowsInKeysetOrder() {
+    repo.saveAll(List.of(
+        device("A", "Apple", DeviceState.AVAILABLE),
+        device("B", "Apple", DeviceState.IN_USE),
+        device("C", "Samsung", DeviceState.AVAILABLE)
+    ));
+
+    var first = repo.findPageAfter(DeviceCursor.START.createdAt(), DeviceCursor.START.id(), 2);
+    Device last = first.get(first.size() - 1);
+    var second = repo.findPageAfter(last.getCreatedAt(), last.getId(), 2);
+
+    assertThat(first).hasSize(2);
+    assertThat(second).hasSize(1);
+    assertThat(Stream.concat(first.stream(), second.stream()))
+        .extracting(Device::getName)
+        .containsExactlyInAnyOrder("A", "B", "C");
+  }
+
+  @Test
+  void findPageByStateAfter_filtersByState() {
+    repo.saveAll(List.of(
+        device("A", "Apple", DeviceState.AVAILABLE),
+        device("B", "Apple", DeviceState.IN_USE),
+        device("C", "Samsung", DeviceState.AVAILABLE)
+    ));
+
+    var result = repo.findPageByStateAfter(DeviceState.AVAILABLE.name(),
+        DeviceCursor.START.createdAt(), DeviceCursor.START.id(), 10);
+
+    assertThat(result).extracting(Device::getName).containsExactlyInAnyOrder("A", "C");
+  }
+
+  private List<Device> findMatching(String brand, DeviceState state) {
+    return repo.findAll(DeviceSpecifications.matching(DeviceFilter.of(brand, state)));
+  }
+
   private static Device device(String name, String brand, DeviceState state) {
     Device d = new Device();
     d.setName(name);
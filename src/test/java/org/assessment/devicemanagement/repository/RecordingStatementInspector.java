@@ -0,0 +1,29 @@
+package org.assessment.devicemanagement.repository;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Records the SQL Hibernate sends, so tests can check the plans of the statements repository
+ * methods really run. Registered through {@code hibernate.session_factory.statement_inspector}.
+ */
+public class RecordingStatementInspector implements StatementInspector {
+
+  private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+  @Override
+  public String inspect(String sql) {
+    STATEMENTS.add(sql);
+    return sql;
+  }
+
+  /**
+   * Runs {@code call} and returns the last statement it sent.
+   */
+  static String lastStatementOf(Runnable call) {
+    STATEMENTS.clear();
+    call.run();
+    return STATEMENTS.get(STATEMENTS.size() - 1);
+  }
+}
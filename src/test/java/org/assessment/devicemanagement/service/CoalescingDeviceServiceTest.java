@@ -0,0 +1,72 @@
+package org.assessment.devicemanagement.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.assessment.devicemanagement.config.CoalescingProperties;
+import org.assessment.devicemanagement.datasource.ReadRouting;
+import org.assessment.devicemanagement.event.DeviceChangeType;
+import org.assessment.devicemanagement.event.DeviceChangedEvent;
+import org.assessment.devicemanagement.event.DeviceSnapshot;
+import org.assessment.devicemanagement.model.Device;
+import org.assessment.devicemanagement.model.DeviceFilter;
+import org.assessment.devicemanagement.model.DeviceState;
+import org.junit.jupiter.api.Test;
+
+class CoalescingDeviceServiceTest {
+
+  private final DeviceServiceImpl delegate = mock(DeviceServiceImpl.class);
+  private final CoalescingDeviceService service = new CoalescingDeviceService(delegate,
+      new CoalescingProperties(true, Duration.ofMinutes(1), 100), new SimpleMeterRegistry());
+
+  @Test
+  void primaryPinnedCalls_neverShareAReplicaServedResult() {
+    UUID id = UUID.randomUUID();
+    Device fromReplica = new Device();
+    Device fromPrimary = new Device();
+    when(delegate.get(id)).thenReturn(fromReplica, fromPrimary);
+
+    assertSame(fromReplica, service.get(id));
+    assertSame(fromPrimary, ReadRouting.onPrimary(() -> service.get(id)));
+
+    // and the primary read didn't replace the shared result either
+    assertSame(fromReplica, service.get(id));
+    verify(delegate, times(2)).get(id);
+  }
+
+  @Test
+  void committedWrite_invalidatesSharedGetAndListResults() {
+    UUID id = UUID.randomUUID();
+    Device before = new Device();
+    Device after = new Device();
+    when(delegate.get(id)).thenReturn(before, after);
+    when(delegate.getDevices(DeviceFilter.ALL)).thenReturn(List.of(before), List.of(after));
+
+    assertSame(before, service.get(id));
+    assertSame(before, service.get(id));
+    assertEquals(List.of(before), service.getDevices(DeviceFilter.ALL));
+    assertEquals(List.of(before), service.getDevices(DeviceFilter.ALL));
+
+    // a write to some other device still changes every list
+    UUID other = UUID.randomUUID();
+    service.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.DELETED, other, null,
+        new DeviceSnapshot(other, "device", "Apple", DeviceState.AVAILABLE, Instant.now(), 0)));
+    assertSame(before, service.get(id));
+    assertEquals(List.of(after), service.getDevices(DeviceFilter.ALL));
+
+    service.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.DELETED, id, null,
+        new DeviceSnapshot(id, "device", "Apple", DeviceState.AVAILABLE, Instant.now(), 0)));
+    assertSame(after, service.get(id));
+    verify(delegate, times(2)).get(id);
+    verify(delegate, times(2)).getDevices(DeviceFilter.ALL);
+  }
+}
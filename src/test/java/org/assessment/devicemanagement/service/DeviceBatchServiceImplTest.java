@@ -0,0 +1,89 @@
+package org.assessment.devicemanagement.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import java.util.UUID;
+import org.assessment.devicemanagement.config.BatchProperties;
+import org.assessment.devicemanagement.event.DeviceChangedEvent;
+import org.assessment.devicemanagement.event.DeviceSnapshot;
+import org.assessment.devicemanagement.model.BatchItemOutcome;
+import org.assessment.devicemanagement.model.BatchItemOutcome.Status;
+import org.assessment.devicemanagement.model.Device;
+import org.assessment.devicemanagement.model.DeviceState;
+import org.assessment.devicemanagement.model.DeviceUpdate;
+import org.assessment.devicemanagement.repository.DeviceRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class DeviceBatchServiceImplTest {
+
+  private final DeviceRepository repo = mock(DeviceRepository.class);
+  private final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+  private final DeviceBatchServiceImpl service = new DeviceBatchServiceImpl(repo,
+      mock(EntityManager.class), events,
+      new TransactionTemplate(mock(PlatformTransactionManager.class)), new BatchProperties(500));
+
+  @Test
+  void delete_deviceThatTurnedInUseBeforeTheDelete_isReportedAsConflictWithoutEvent() {
+    Device available = device(DeviceState.AVAILABLE);
+    // Was AVAILABLE when the client built the batch, IN_USE by the time the chunk runs
+    Device nowInUse = device(DeviceState.IN_USE);
+    UUID missing = UUID.randomUUID();
+    when(repo.deleteAllDeletable(any())).thenReturn(List.of(available));
+    when(repo.findAllById(List.of(nowInUse.getId(), missing))).thenReturn(List.of(nowInUse));
+
+    List<BatchItemOutcome> outcomes = service.apply(List.of(), List.of(),
+        List.of(available.getId(), nowInUse.getId(), missing, available.getId()));
+
+    assertThat(outcomes).extracting(BatchItemOutcome::status)
+        .containsExactly(Status.DELETED, Status.CONFLICT, Status.NOT_FOUND, Status.DELETED);
+    assertThat(outcomes.get(1).message()).isEqualTo(DeviceRules.DELETE_IN_USE);
+    verify(events, times(1)).publishEvent(any(DeviceChangedEvent.class));
+    verify(events).publishEvent(DeviceChangedEvent.deleted(available.getId(), available));
+  }
+
+  @Test
+  void transitionStates_startsEachChunkAfterTheLargestIdOfThePreviousOne() {
+    DeviceBatchServiceImpl twoPerChunk = new DeviceBatchServiceImpl(repo,
+        mock(EntityManager.class), events,
+        new TransactionTemplate(mock(PlatformTransactionManager.class)), new BatchProperties(2));
+    // Largest in Postgres' (unsigned) uuid order, smallest for UUID.compareTo
+    UUID high = UUID.fromString("80000000-0000-0000-0000-000000000000");
+    UUID low = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    when(repo.transitionStates(null, "AVAILABLE", null, null, "INACTIVE", null, 2))
+        .thenReturn(List.of(update(high), update(low)));
+    when(repo.transitionStates(null, "AVAILABLE", null, null, "INACTIVE", high, 2))
+        .thenReturn(List.of(update(UUID.fromString("90000000-0000-0000-0000-000000000000"))));
+
+    long moved = twoPerChunk.transitionStates(null, DeviceState.AVAILABLE, null, null,
+        DeviceState.INACTIVE);
+
+    assertThat(moved).isEqualTo(3);
+    verify(repo).transitionStates(null, "AVAILABLE", null, null, "INACTIVE", high, 2);
+  }
+
+  private static DeviceUpdate update(UUID id) {
+    Device d = device(DeviceState.INACTIVE);
+    ReflectionTestUtils.setField(d, "id", id);
+    return new DeviceUpdate(d, DeviceSnapshot.of(d));
+  }
+
+  private static Device device(DeviceState state) {
+    Device d = new Device();
+    ReflectionTestUtils.setField(d, "id", UUID.randomUUID());
+    d.setName("Phone");
+    d.setBrand("Apple");
+    d.setState(state);
+    return d;
+  }
+}
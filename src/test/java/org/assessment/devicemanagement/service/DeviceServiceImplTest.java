@@ -2,29 +2,58 @@ package org.assessment.devicemanagement.service;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import org.assessment.devicemanagement.cache.DeviceCache;
+import org.assessment.devicemanagement.cache.LocalCacheInvalidationBus;
+import org.assessment.devicemanagement.config.CacheProperties;
 import org.assessment.devicemanagement.dto.PatchDeviceRequest;
 import org.assessment.devicemanagement.dto.UpdateDeviceRequest;
+import org.assessment.devicemanagement.event.DeviceChangeType;
+import org.assessment.devicemanagement.event.DeviceChangedEvent;
+import org.assessment.devicemanagement.event.DeviceSnapshot;
 import org.assessment.devicemanagement.exception.DomainValidationException;
 import org.assessment.devicemanagement.exception.NotFoundException;
+import org.assessment.devicemanagement.exception.PreconditionFailedException;
+import org.assessment.devicemanagement.metrics.DeviceMetrics;
 import org.assessment.devicemanagement.model.Device;
+import org.assessment.devicemanagement.model.DeviceFilter;
+import org.assessment.devicemanagement.model.DevicePage;
+import org.assessment.devicemanagement.model.DeviceSort;
 import org.assessment.devicemanagement.model.DeviceState;
+import org.assessment.devicemanagement.model.DeviceUpdate;
 import org.assessment.devicemanagement.repository.DeviceRepository;
 import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 
 public class DeviceServiceImplTest {
 
   private final DeviceRepository repo = mock(DeviceRepository.class);
-  private final DeviceServiceImpl service = new DeviceServiceImpl(repo);
+  private final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+  private final DeviceCache cache = new DeviceCache(
+      new CacheProperties(true, 100, Duration.ofMinutes(1), "local"),
+      new LocalCacheInvalidationBus(), new SimpleMeterRegistry());
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final DeviceServiceImpl service = new DeviceServiceImpl(repo, mock(EntityManager.class),
+      events, cache, new DeviceMetrics(registry));
 
   @Test
   void get_whenNotFound_throwsNotFound() {
@@ -35,80 +64,156 @@ public class DeviceServiceImplTest {
   }
 
   @Test
-  void getDevices_withBrandAndState_callsCombinedRepoMethod() {
-    String brand = "Apple";
-    DeviceState state = DeviceState.AVAILABLE;
+  void get_servesRepeatedLookupsFromCache_untilInvalidated() {
+    UUID id = UUID.randomUUID();
+    Device existing = new Device();
+    existing.setState(DeviceState.AVAILABLE);
+    when(repo.findById(id)).thenReturn(Optional.of(existing));
+
+    service.get(id);
+    service.get(id);
+    verify(repo, times(1)).findById(id);
+
+    cache.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.UPDATED, id));
+    service.get(id);
+    verify(repo, times(2)).findById(id);
+  }
+
+  @Test
+  void delete_publishesDeletedEvent() {
+    UUID id = UUID.randomUUID();
+    Device existing = new Device();
+    existing.setState(DeviceState.AVAILABLE);
+    when(repo.deleteIfDeletable(id, null)).thenReturn(Optional.of(existing));
 
-    when(repo.findByBrandIgnoreCaseAndState(brand, state)).thenReturn(List.of());
+    service.delete(id, null);
 
-    service.getDevices(brand, state);
+    verify(events).publishEvent(DeviceChangedEvent.deleted(id, existing));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void getDevices_issuesOneSpecificationQuery_inRequestedOrder() {
+    DeviceFilter filter = new DeviceFilter(Set.of("Apple", "Google"),
+        Set.of(DeviceState.AVAILABLE, DeviceState.IN_USE), null, null, DeviceSort.NAME_DESC, false);
+    when(repo.findAll(any(Specification.class), any(Sort.class))).thenReturn(List.of());
 
-    verify(repo).findByBrandIgnoreCaseAndState(brand, state);
+    service.getDevices(filter);
+
+    verify(repo).findAll(any(Specification.class),
+        eq(Sort.by(Sort.Direction.DESC, "name", "id")));
     verify(repo, never()).findAll();
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  void getDevices_recordsRowCountPerFilter() {
+    when(repo.findAll(any(Specification.class), any(Sort.class)))
+        .thenReturn(List.of(new Device(), new Device()));
+
+    service.getDevices(DeviceFilter.of("Apple", null));
+
+    var rows = registry.get(DeviceMetrics.QUERY_ROWS)
+        .tags("query", "list", "filter", "brand")
+        .summary();
+    assertEquals(1, rows.count());
+    assertEquals(2.0, rows.totalAmount());
+  }
+
+  @Test
+  void getDevicePage_clampsLimit_andOmitsCursorOnLastPage() {
+    when(repo.findPageAfter(any(), any(), anyInt())).thenReturn(List.of());
+
+    DevicePage page = service.getDevicePage(null, null, null, 10_000);
+
+    verify(repo).findPageAfter(any(), any(), eq(DeviceServiceImpl.MAX_PAGE_SIZE + 1));
+    assertNull(page.next());
+  }
+
   @Test
   void update_whenInUse_andNameChanges_throwsDomainValidation() {
     UUID id = UUID.randomUUID();
-    Device existing = new Device();
-    existing.setName("Old");
-    existing.setBrand("Brand");
-    existing.setState(DeviceState.IN_USE);
 
-    when(repo.findById(id)).thenReturn(Optional.of(existing));
+    // the conditional UPDATE matched nothing, but the device exists: a rule rejected it
+    when(repo.updateIfMutable(id, "New", "Brand", "IN_USE", null)).thenReturn(Optional.empty());
+    when(repo.findVersionById(id)).thenReturn(Optional.of(0L));
 
     UpdateDeviceRequest req = new UpdateDeviceRequest("New", "Brand", DeviceState.IN_USE);
 
-    assertThrows(DomainValidationException.class, () -> service.update(id, req));
+    assertThrows(DomainValidationException.class, () -> service.update(id, req, null));
     verify(repo, never()).save(any());
+    verify(events, never()).publishEvent(any(Object.class));
+  }
+
+  @Test
+  void update_whenMissing_throwsNotFound() {
+    UUID id = UUID.randomUUID();
+
+    when(repo.updateIfMutable(id, "Name", "Brand", "AVAILABLE", null)).thenReturn(Optional.empty());
+    when(repo.findVersionById(id)).thenReturn(Optional.empty());
+
+    UpdateDeviceRequest req = new UpdateDeviceRequest("Name", "Brand", DeviceState.AVAILABLE);
+
+    assertThrows(NotFoundException.class, () -> service.update(id, req, null));
+  }
+
+  @Test
+  void patch_whenExpectedVersionIsStale_throwsPreconditionFailed() {
+    UUID id = UUID.randomUUID();
+
+    when(repo.updateIfMutable(id, null, null, "INACTIVE", 3L)).thenReturn(Optional.empty());
+    when(repo.findVersionById(id)).thenReturn(Optional.of(4L));
+
+    PatchDeviceRequest req = new PatchDeviceRequest(null, null, DeviceState.INACTIVE);
+
+    assertThrows(PreconditionFailedException.class, () -> service.patch(id, req, 3L));
   }
 
   @Test
   void update_whenInUse_andOnlyStateChanges_allowsUpdate() {
     UUID id = UUID.randomUUID();
-    Device existing = new Device();
-    existing.setName("Name");
-    existing.setBrand("Brand");
-    existing.setState(DeviceState.IN_USE);
+    Device stored = new Device();
+    stored.setName("Name");
+    stored.setBrand("Brand");
+    stored.setState(DeviceState.INACTIVE);
 
-    when(repo.findById(id)).thenReturn(Optional.of(existing));
-    when(repo.save(any(Device.class))).thenAnswer(inv -> inv.getArgument(0));
+    DeviceSnapshot previous = new DeviceSnapshot(id, "Name", "Brand", DeviceState.IN_USE, null, 0);
+    when(repo.updateIfMutable(id, "Name", "Brand", "INACTIVE", null))
+        .thenReturn(Optional.of(new DeviceUpdate(stored, previous)));
 
     UpdateDeviceRequest req = new UpdateDeviceRequest("Name", "Brand", DeviceState.INACTIVE);
 
-    Device updated = service.update(id, req);
+    Device updated = service.update(id, req, null);
 
     assertEquals(DeviceState.INACTIVE, updated.getState());
     assertEquals("Name", updated.getName());
     assertEquals("Brand", updated.getBrand());
-    verify(repo).save(existing);
+    verify(repo, never()).findById(any());
+    verify(repo, never()).save(any());
+    verify(events).publishEvent(DeviceChangedEvent.updated(previous, stored));
   }
 
   @Test
   void patch_whenInUse_andBrandWouldChange_throwsDomainValidation() {
     UUID id = UUID.randomUUID();
-    Device existing = new Device();
-    existing.setName("Name");
-    existing.setBrand("Brand");
-    existing.setState(DeviceState.IN_USE);
 
-    when(repo.findById(id)).thenReturn(Optional.of(existing));
+    when(repo.updateIfMutable(id, null, "NewBrand", null, null)).thenReturn(Optional.empty());
+    when(repo.findVersionById(id)).thenReturn(Optional.of(0L));
 
     PatchDeviceRequest req = new PatchDeviceRequest(null, "NewBrand", null);
 
-    assertThrows(DomainValidationException.class, () -> service.patch(id, req));
+    assertThrows(DomainValidationException.class, () -> service.patch(id, req, null));
     verify(repo, never()).save(any());
   }
 
   @Test
   void delete_whenInUse_throwsDomainValidation() {
     UUID id = UUID.randomUUID();
-    Device existing = new Device();
-    existing.setState(DeviceState.IN_USE);
 
-    when(repo.findById(id)).thenReturn(Optional.of(existing));
+    when(repo.deleteIfDeletable(id, null)).thenReturn(Optional.empty());
+    when(repo.findVersionById(id)).thenReturn(Optional.of(0L));
 
-    assertThrows(DomainValidationException.class, () -> service.delete(id));
+    assertThrows(DomainValidationException.class, () -> service.delete(id, null));
     verify(repo, never()).delete(any());
   }
 
@@ -118,9 +223,10 @@ public class DeviceServiceImplTest {
     Device existing = new Device();
     existing.setState(DeviceState.AVAILABLE);
 
-    when(repo.findById(id)).thenReturn(Optional.of(existing));
+    when(repo.deleteIfDeletable(id, null)).thenReturn(Optional.of(existing));
 
-    assertDoesNotThrow(() -> service.delete(id));
-    verify(repo).delete(existing);
+    assertDoesNotThrow(() -> service.delete(id, null));
+    verify(repo).deleteIfDeletable(id, null);
+    verify(repo, never()).findVersionById(any());
   }
 }
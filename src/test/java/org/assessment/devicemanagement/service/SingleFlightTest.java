@@ -0,0 +1,98 @@
+package org.assessment.devicemanagement.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.assessment.devicemanagement.exception.NotFoundException;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  @Test
+  void concurrentCalls_shareOneLoad() throws Exception {
+    SingleFlight<String, Object> flight =
+        new SingleFlight<>("list", Duration.ZERO, 100, registry);
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Object result = new Object();
+
+    ExecutorService callers = Executors.newFixedThreadPool(8);
+    try {
+      CompletableFuture<Object> leader = CompletableFuture.supplyAsync(
+          () -> flight.execute("apple", () -> {
+            loads.incrementAndGet();
+            started.countDown();
+            await(release);
+            return result;
+          }), callers);
+      started.await(5, TimeUnit.SECONDS);
+
+      List<CompletableFuture<Object>> followers = new ArrayList<>();
+      for (int i = 0; i < 7; i++) {
+        followers.add(CompletableFuture.supplyAsync(
+            () -> flight.execute("apple", () -> {
+              loads.incrementAndGet();
+              return new Object();
+            }), callers));
+      }
+      // followers are parked on the leader's future once they have been counted
+      while (registry.get("devices.singleflight.calls").tag("outcome", "coalesced").counter()
+          .count() < 7) {
+        Thread.onSpinWait();
+      }
+      release.countDown();
+
+      assertSame(result, leader.get(5, TimeUnit.SECONDS));
+      for (CompletableFuture<Object> follower : followers) {
+        assertSame(result, follower.get(5, TimeUnit.SECONDS));
+      }
+      assertEquals(1, loads.get());
+    } finally {
+      callers.shutdownNow();
+    }
+
+    // nothing is kept without a window
+    flight.execute("apple", () -> {
+      loads.incrementAndGet();
+      return result;
+    });
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void resultsAreSharedForTheWindow_untilForgotten_andFailuresAreNot() {
+    SingleFlight<String, Integer> flight =
+        new SingleFlight<>("get", Duration.ofMinutes(1), 100, registry);
+
+    assertThrows(NotFoundException.class, () -> flight.execute("a", () -> {
+      throw new NotFoundException("Device not found: a");
+    }));
+    assertEquals(1, flight.execute("a", () -> 1));
+    assertEquals(1, flight.execute("a", () -> 2));
+
+    flight.forget("a");
+    assertEquals(3, flight.execute("a", () -> 3));
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
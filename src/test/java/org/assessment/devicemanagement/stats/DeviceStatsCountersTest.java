@@ -0,0 +1,64 @@
+package org.assessment.devicemanagement.stats;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.assessment.devicemanagement.config.StatsProperties;
+import org.assessment.devicemanagement.event.DeviceChangeType;
+import org.assessment.devicemanagement.event.DeviceChangedEvent;
+import org.assessment.devicemanagement.event.DeviceSnapshot;
+import org.assessment.devicemanagement.model.DeviceState;
+import org.assessment.devicemanagement.model.DeviceStats;
+import org.assessment.devicemanagement.repository.DeviceRepository;
+import org.assessment.devicemanagement.repository.DeviceRepository.BrandStateCount;
+import org.junit.jupiter.api.Test;
+
+class DeviceStatsCountersTest {
+
+  private final DeviceRepository repo = mock(DeviceRepository.class);
+  private final DeviceStatsCounters counters =
+      new DeviceStatsCounters(repo, new StatsProperties(Duration.ofMinutes(1)));
+
+  @Test
+  void mutations_adjustCounters_andReconcileReplacesThem() {
+    UUID id = UUID.randomUUID();
+    DeviceSnapshot available = snapshot(id, "Apple", DeviceState.AVAILABLE);
+    DeviceSnapshot inUse = snapshot(id, "Apple", DeviceState.IN_USE);
+
+    counters.onDeviceChanged(
+        new DeviceChangedEvent(DeviceChangeType.CREATED, id, available, null));
+    counters.onDeviceChanged(
+        new DeviceChangedEvent(DeviceChangeType.UPDATED, id, inUse, available));
+
+    DeviceStats stats = counters.snapshot();
+    assertEquals(1, stats.total());
+    assertEquals(Map.of(DeviceState.IN_USE, 1L), stats.byBrand().get("apple"));
+
+    counters.onDeviceChanged(new DeviceChangedEvent(DeviceChangeType.DELETED, id, null, inUse));
+    assertEquals(0, counters.snapshot().total());
+
+    BrandStateCount row = mock(BrandStateCount.class);
+    when(row.getBrand()).thenReturn("samsung");
+    when(row.getState()).thenReturn(DeviceState.INACTIVE);
+    when(row.getCount()).thenReturn(42L);
+    when(repo.countByBrandAndState()).thenReturn(List.of(row));
+
+    counters.reconcile();
+
+    stats = counters.snapshot();
+    assertEquals(42, stats.total());
+    assertEquals(Map.of(DeviceState.INACTIVE, 42L), stats.byState());
+    assertNotNull(stats.reconciledAt());
+  }
+
+  private static DeviceSnapshot snapshot(UUID id, String brand, DeviceState state) {
+    return new DeviceSnapshot(id, "device", brand, state, Instant.now(), 0);
+  }
+}
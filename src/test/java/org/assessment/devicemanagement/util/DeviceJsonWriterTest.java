@@ -0,0 +1,63 @@
+package org.assessment.devicemanagement.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.UUID;
+import org.assessment.devicemanagement.model.Device;
+import org.assessment.devicemanagement.model.DeviceState;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class DeviceJsonWriterTest {
+
+  // Same modules and features Spring Boot applies to the MVC JSON converter
+  private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+
+  @Test
+  void write_matchesJacksonOutputOfMappedResponse_byteForByte() throws IOException {
+    Device[] devices = {
+        device(new UUID(0L, 0L), "plain", "Apple", DeviceState.AVAILABLE,
+            Instant.parse("2025-01-01T00:00:00Z"), 0),
+        device(UUID.fromString("f81d4fae-7dec-11d0-a765-00a0c91e6bf6"), "quoted \"name\"\n",
+            "Ünïcødé ✓", DeviceState.IN_USE, Instant.parse("2025-06-30T23:59:59.123Z"), 7),
+        device(new UUID(-1L, -1L), "micros", "Dell", DeviceState.INACTIVE,
+            Instant.parse("1999-12-31T12:00:00.123456Z"), Long.MAX_VALUE),
+        device(UUID.randomUUID(), "nanos", "Lenovo", DeviceState.AVAILABLE,
+            Instant.ofEpochSecond(1_700_000_000L, 1), 3)
+    };
+
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    ByteArrayOutputStream actual = new ByteArrayOutputStream();
+    DeviceJsonWriter writer = new DeviceJsonWriter();
+    try (JsonGenerator gen = mapper.getFactory().createGenerator(actual)) {
+      gen.setRootValueSeparator(null);
+      for (Device d : devices) {
+        expected.write(mapper.writeValueAsBytes(DeviceMapper.toResponse(d)));
+        expected.write('\n');
+        writer.write(gen, d);
+        gen.writeRaw('\n');
+      }
+    }
+
+    assertArrayEquals(expected.toByteArray(), actual.toByteArray(),
+        () -> expected.toString() + " != " + actual.toString());
+  }
+
+  private static Device device(UUID id, String name, String brand, DeviceState state,
+      Instant createdAt, long version) {
+    Device d = new Device();
+    d.setName(name);
+    d.setBrand(brand);
+    d.setState(state);
+    ReflectionTestUtils.setField(d, "id", id);
+    ReflectionTestUtils.setField(d, "createdAt", createdAt);
+    ReflectionTestUtils.setField(d, "version", version);
+    return d;
+  }
+}